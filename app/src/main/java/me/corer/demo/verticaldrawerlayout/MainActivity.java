@@ -22,12 +22,7 @@ public class MainActivity extends AppCompatActivity {
         mArrow = (ImageView) findViewById(R.id.img);
 
 
-        mDrawerLayout.setDrawerListener(new VerticalDrawerLayout.SimpleDrawerListener() {
-            @Override
-            public void onDrawerSlide(View drawerView, float slideOffset) {
-                mArrow.setRotation(slideOffset*180);
-            }
-        });
+        mDrawerLayout.bindProperty(mArrow, VerticalDrawerLayout.PROPERTY_ROTATION, 0, 180, null);
     }
 
 
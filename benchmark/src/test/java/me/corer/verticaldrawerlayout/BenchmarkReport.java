@@ -0,0 +1,125 @@
+package me.corer.verticaldrawerlayout;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes benchmark results as CSV and, when a baseline from an earlier commit is
+ * given, compares against it.
+ *
+ * <p>Results go to {@code build/benchmark-results/<suite>.csv} in the module
+ * directory. To check for regressions, keep a copy of that file from the commit
+ * to compare with and point {@code BENCHMARK_BASELINE} at it:</p>
+ *
+ * <pre>
+ * BENCHMARK_BASELINE=/tmp/base.csv ./gradlew :benchmark:testDebugUnitTest
+ * </pre>
+ *
+ * <p>A benchmark fails the comparison if its ns/op grew by more than
+ * {@code BENCHMARK_MAX_REGRESSION} percent (default 20), or if it allocates at
+ * least one byte per op more than the baseline did.</p>
+ */
+final class BenchmarkReport {
+
+    private static final String HEADER = "benchmark,ns_per_op,bytes_per_op,ops";
+    private static final double DEFAULT_MAX_REGRESSION = 20;
+    // Bytes per op below which a change in allocation is treated as noise.
+    private static final double ALLOCATION_TOLERANCE = 1;
+
+    private final String mSuite;
+    private final List<MicroBenchmark.Result> mResults = new ArrayList<>();
+
+    BenchmarkReport(String suite) {
+        mSuite = suite;
+    }
+
+    void add(MicroBenchmark.Result result) {
+        System.out.println(result);
+        mResults.add(result);
+    }
+
+    File write() throws IOException {
+        final File dir = new File("build/benchmark-results");
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir.getAbsolutePath());
+        }
+        final File file = new File(dir, mSuite + ".csv");
+        final Writer writer = new FileWriter(file);
+        try {
+            writer.write(HEADER);
+            writer.write('\n');
+            for (MicroBenchmark.Result result : mResults) {
+                writer.write(String.format(Locale.ROOT, "%s,%.1f,%.1f,%d\n",
+                        result.name, result.nsPerOp, result.bytesPerOp, result.ops));
+            }
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    /**
+     * @return a description of each regression against {@code BENCHMARK_BASELINE};
+     * empty if there are none or no baseline was given
+     */
+    List<String> compareWithBaseline() throws IOException {
+        final List<String> regressions = new ArrayList<>();
+        final String baselinePath = System.getenv("BENCHMARK_BASELINE");
+        if (baselinePath == null || baselinePath.isEmpty()) {
+            return regressions;
+        }
+        final String maxRegressionEnv = System.getenv("BENCHMARK_MAX_REGRESSION");
+        final double maxRegression = maxRegressionEnv != null
+                ? Double.parseDouble(maxRegressionEnv) : DEFAULT_MAX_REGRESSION;
+
+        final Map<String, double[]> baseline = read(new File(baselinePath));
+        for (MicroBenchmark.Result result : mResults) {
+            final double[] base = baseline.get(result.name);
+            if (base == null) {
+                continue;
+            }
+            final double change = (result.nsPerOp - base[0]) / base[0] * 100;
+            System.out.println(String.format(Locale.ROOT,
+                    "%-40s %+7.1f%% ns/op, %.1f -> %.1f B/op",
+                    result.name, change, base[1], result.bytesPerOp));
+            if (change > maxRegression) {
+                regressions.add(String.format(Locale.ROOT, "%s: %.1f -> %.1f ns/op (%+.1f%%)",
+                        result.name, base[0], result.nsPerOp, change));
+            }
+            if (result.bytesPerOp >= base[1] + ALLOCATION_TOLERANCE) {
+                regressions.add(String.format(Locale.ROOT, "%s: %.1f -> %.1f B/op",
+                        result.name, base[1], result.bytesPerOp));
+            }
+        }
+        return regressions;
+    }
+
+    private static Map<String, double[]> read(File file) throws IOException {
+        final Map<String, double[]> values = new HashMap<>();
+        final BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            String line = reader.readLine(); // header
+            while ((line = reader.readLine()) != null) {
+                final String[] columns = line.split(",");
+                if (columns.length < 3) {
+                    continue;
+                }
+                values.put(columns[0], new double[]{
+                        Double.parseDouble(columns[1]), Double.parseDouble(columns[2])
+                });
+            }
+        } finally {
+            reader.close();
+        }
+        return values;
+    }
+}
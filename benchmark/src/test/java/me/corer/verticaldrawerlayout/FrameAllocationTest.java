@@ -0,0 +1,310 @@
+package me.corer.verticaldrawerlayout;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.Region;
+import android.graphics.drawable.Drawable;
+import android.support.v4.widget.ViewDragHelper;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Drives full drags and settles and checks that no frame allocates, using the
+ * HotSpot per-thread allocation counter like {@link MicroBenchmark}.
+ *
+ * <p>The drag goes through the layout's own top drag helper and callback: the
+ * helper captures the drawer, every step from closed to fully open is a frame,
+ * and the release ends the helper's drag the way a lifted finger does.</p>
+ *
+ * <p>Every step is measured on its own: the capture, each drag frame
+ * ({@code onViewPositionChanged} and {@code drawChild} for both children), the
+ * release, and each settle frame ({@code computeScroll} and drawing) up to and
+ * including the one the drawer comes to rest in. Robolectric's own work is kept
+ * out through the layout's test seams rather than subtracted: the settle clock
+ * is a field the test advances by a frame, the shadow is drawn with a paint
+ * whose alpha is a plain field, and drawing goes to a canvas that does
+ * nothing.</p>
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = me.corer.verticaldrawerlayout.benchmark.BuildConfig.class, sdk = 21)
+public class FrameAllocationTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int DRAWER_HEIGHT = 1200;
+    private static final int SHADOW_HEIGHT = 24;
+    private static final int DRAG_STEP = 8;
+    private static final long FRAME_MS = 16;
+
+    /**
+     * Full drag and settle cycles run before measuring, so the JIT has compiled
+     * the path and one-time work such as rasterizing the shadow is done.
+     */
+    private static final int WARMUP_CYCLES = 50;
+
+    private VerticalDrawerLayout mLayout;
+    private VerticalDrawerLayout.ViewDragCallback mCallback;
+    private View mDrawer;
+    private final Canvas mCanvas = new NullCanvas();
+    private long mThreadId;
+    private long mCounterOverhead;
+    private long mFrameStart;
+    private boolean mMeasuring;
+    private long mNow;
+    private int mSlides;
+
+    @Before
+    public void setUp() {
+        final Context context = RuntimeEnvironment.application;
+        mLayout = new VerticalDrawerLayout(context) {
+            @Override
+            long currentAnimationTimeMillis() {
+                return mNow;
+            }
+        };
+        mLayout.addView(new View(context), new VerticalDrawerLayout.LayoutParams(
+                VerticalDrawerLayout.LayoutParams.MATCH_PARENT,
+                VerticalDrawerLayout.LayoutParams.MATCH_PARENT));
+        mLayout.addView(new FrameLayout(context), new VerticalDrawerLayout.LayoutParams(
+                VerticalDrawerLayout.LayoutParams.MATCH_PARENT, DRAWER_HEIGHT));
+        mLayout.onFinishInflate();
+        mLayout.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        mLayout.layout(0, 0, WIDTH, HEIGHT);
+        mDrawer = mLayout.mDrawerView;
+        mCallback = mLayout.mTopCallback;
+
+        mLayout.setDrawerShadow(new StripShadow());
+        mLayout.setShadowPaint(new AlphaPaint());
+        mLayout.setDrawerPeekHeight(DRAWER_HEIGHT / 8);
+        mLayout.setDrawerAnchorFractions(0.5f);
+        mLayout.addDrawerListener(new VerticalDrawerLayout.SimpleDrawerListener() {
+            @Override
+            public void onDrawerSlide(View drawerView, float slideOffset) {
+                mSlides++;
+            }
+        });
+
+        mThreadId = Thread.currentThread().getId();
+        assumeTrue("JVM has no per-thread allocation counter",
+                MicroBenchmark.allocatedBytes(mThreadId) >= 0);
+        mCounterOverhead = -MicroBenchmark.allocatedBytes(mThreadId)
+                + MicroBenchmark.allocatedBytes(mThreadId);
+
+        for (int i = 0; i < WARMUP_CYCLES; i++) {
+            drag(-DRAWER_HEIGHT, 0, 0);
+            mLayout.closeDrawer();
+            settle();
+        }
+        mMeasuring = true;
+    }
+
+    @Test
+    public void fullDragFramesDoNotAllocate() {
+        mSlides = 0;
+        drag(-DRAWER_HEIGHT, 0, 0);
+        // Make sure the frames did the work being measured.
+        assertEquals(DRAWER_HEIGHT / DRAG_STEP, mSlides);
+        assertTrue(mLayout.isDrawerOpen());
+    }
+
+    @Test
+    public void settleFramesOfBothDirectionsDoNotAllocate() {
+        drag(-DRAWER_HEIGHT, -DRAWER_HEIGHT * 2 / 3, 2000);
+        assertTrue(mLayout.isDrawerOpen());
+        mLayout.closeDrawer();
+        settle();
+        assertEquals(-DRAWER_HEIGHT, mDrawer.getTop());
+    }
+
+    /**
+     * Drags the drawer from {@code fromTop} to {@code toTop} through the top
+     * drag helper, releases it with {@code yvel} and lets it settle.
+     */
+    private void drag(int fromTop, int toTop, float yvel) {
+        moveTo(fromTop);
+        final ViewDragHelper dragger = mLayout.mDragHelper;
+
+        beginFrame();
+        dragger.captureChildView(mDrawer, 0);
+        endFrame("capture", 0);
+
+        for (int top = fromTop + DRAG_STEP; top <= toTop; top += DRAG_STEP) {
+            mNow += FRAME_MS;
+            beginFrame();
+            mDrawer.offsetTopAndBottom(top - mDrawer.getTop());
+            mCallback.onViewPositionChanged(mDrawer, 0, top, 0, DRAG_STEP);
+            drawFrame();
+            endFrame("drag frame to top", top);
+        }
+
+        // What ViewDragHelper does for ACTION_UP: report the release, then end
+        // its drag.
+        beginFrame();
+        mCallback.onViewReleased(mDrawer, 0, yvel);
+        dragger.abort();
+        endFrame("release", 0);
+        settle();
+    }
+
+    /**
+     * Runs settle frames until the drawer is idle, the frame it comes to rest
+     * in included.
+     */
+    private void settle() {
+        int frame = 0;
+        while (mLayout.getDrawerState() != VerticalDrawerLayout.STATE_IDLE) {
+            mNow += FRAME_MS;
+            beginFrame();
+            mLayout.computeScroll();
+            drawFrame();
+            endFrame("settle frame", frame++);
+        }
+    }
+
+    private void beginFrame() {
+        mFrameStart = MicroBenchmark.allocatedBytes(mThreadId);
+    }
+
+    /**
+     * Fails if anything was allocated since {@link #beginFrame()}. The message
+     * is only built after the counter has been read.
+     */
+    private void endFrame(String step, int index) {
+        final long bytes = MicroBenchmark.allocatedBytes(mThreadId) - mFrameStart
+                - mCounterOverhead;
+        if (mMeasuring && bytes > 0) {
+            fail(step + " " + index + " allocated " + bytes + " bytes");
+        }
+    }
+
+    private void drawFrame() {
+        mLayout.drawChild(mCanvas, mLayout.mContentView, mNow);
+        mLayout.drawChild(mCanvas, mDrawer, mNow);
+    }
+
+    private void moveTo(int top) {
+        mLayout.moveDrawerTo(mDrawer, top);
+        mLayout.updateDrawerState(VerticalDrawerLayout.STATE_IDLE, mDrawer);
+    }
+
+    /**
+     * A paint that keeps its alpha in a field. Robolectric's Paint shadow
+     * allocates for every new alpha, which a device's paint doesn't.
+     */
+    private static class AlphaPaint extends Paint {
+        private int mAlpha = 0xff;
+
+        @Override
+        public void setAlpha(int alpha) {
+            mAlpha = alpha;
+        }
+
+        @Override
+        public int getAlpha() {
+            return mAlpha;
+        }
+    }
+
+    /**
+     * A canvas that draws nothing, so only the layout's own work is counted and
+     * not that of Robolectric's Canvas shadow. It rejects every child, which is
+     * what a canvas does for children outside its clip.
+     */
+    private static class NullCanvas extends Canvas {
+        @Override
+        public int save() {
+            return 1;
+        }
+
+        @Override
+        public void restoreToCount(int saveCount) {
+        }
+
+        @Override
+        public boolean clipRect(int left, int top, int right, int bottom) {
+            return true;
+        }
+
+        @Override
+        public boolean clipRect(float left, float top, float right, float bottom) {
+            return true;
+        }
+
+        @Override
+        public boolean clipRect(Rect rect) {
+            return true;
+        }
+
+        @Override
+        public boolean clipRect(Rect rect, Region.Op op) {
+            return true;
+        }
+
+        @Override
+        public void translate(float dx, float dy) {
+        }
+
+        @Override
+        public void scale(float sx, float sy) {
+        }
+
+        @Override
+        public boolean quickReject(float left, float top, float right, float bottom, EdgeType type) {
+            return true;
+        }
+
+        @Override
+        public void drawColor(int color) {
+        }
+
+        @Override
+        public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        }
+
+        @Override
+        public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        }
+    }
+
+    private static class StripShadow extends Drawable {
+        @Override
+        public void draw(Canvas canvas) {
+        }
+
+        @Override
+        public int getIntrinsicHeight() {
+            return SHADOW_HEIGHT;
+        }
+
+        @Override
+        public void setAlpha(int alpha) {
+        }
+
+        @Override
+        public void setColorFilter(ColorFilter colorFilter) {
+        }
+
+        @Override
+        public int getOpacity() {
+            return PixelFormat.TRANSLUCENT;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package me.corer.verticaldrawerlayout;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Minimal steady-state micro benchmark runner for the JVM.
+ *
+ * <p>The operation is run in batches. Warmup runs for at least
+ * {@link #MIN_WARMUP_NANOS} and then until the last few batch timings agree within
+ * {@link #STEADY_STATE_TOLERANCE}, or a time limit is hit. After that a fixed number
+ * of batches is measured and the median is reported as ns/op. Allocation is read
+ * from the HotSpot per-thread allocation counter, so it is exact rather than
+ * sampled.</p>
+ */
+final class MicroBenchmark {
+
+    interface Op {
+        void run(int iteration);
+    }
+
+    static final class Result {
+        final String name;
+        final double nsPerOp;
+        final double bytesPerOp;
+        final long ops;
+
+        Result(String name, double nsPerOp, double bytesPerOp, long ops) {
+            this.name = name;
+            this.nsPerOp = nsPerOp;
+            this.bytesPerOp = bytesPerOp;
+            this.ops = ops;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-40s %12.1f ns/op %10.1f B/op (%d ops)",
+                    name, nsPerOp, bytesPerOp, ops);
+        }
+    }
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int STEADY_STATE_WINDOW = 5;
+    private static final double STEADY_STATE_TOLERANCE = 0.05;
+    private static final long MIN_WARMUP_NANOS = 1000000000L;
+    private static final long MAX_WARMUP_NANOS = 5000000000L;
+    private static final int MEASURED_BATCHES = 15;
+
+    private MicroBenchmark() {
+    }
+
+    static Result run(String name, Op op) {
+        warmUp(op);
+
+        final long[] batchNanos = new long[MEASURED_BATCHES];
+        final long threadId = Thread.currentThread().getId();
+        // Reading the counter allocates a little itself; measure that once so it
+        // can be taken off the result.
+        final long counterOverhead = -allocatedBytes(threadId) + allocatedBytes(threadId);
+        final long bytesBefore = allocatedBytes(threadId);
+        for (int batch = 0; batch < MEASURED_BATCHES; batch++) {
+            batchNanos[batch] = runBatch(op);
+        }
+        final long bytes = Math.max(0, allocatedBytes(threadId) - bytesBefore - counterOverhead);
+
+        Arrays.sort(batchNanos);
+        final long ops = (long) MEASURED_BATCHES * BATCH_SIZE;
+        return new Result(name,
+                (double) batchNanos[MEASURED_BATCHES / 2] / BATCH_SIZE,
+                bytesBefore < 0 ? -1 : (double) bytes / ops,
+                ops);
+    }
+
+    private static void warmUp(Op op) {
+        final long[] window = new long[STEADY_STATE_WINDOW];
+        final long start = System.nanoTime();
+        int batches = 0;
+        long elapsed;
+        while ((elapsed = System.nanoTime() - start) < MAX_WARMUP_NANOS) {
+            window[batches % STEADY_STATE_WINDOW] = runBatch(op);
+            batches++;
+            // Give the JIT some time before trusting a stable window, or the
+            // interpreter's timings could pass as steady state.
+            if (elapsed >= MIN_WARMUP_NANOS && batches >= STEADY_STATE_WINDOW
+                    && isSteady(window)) {
+                return;
+            }
+        }
+    }
+
+    private static boolean isSteady(long[] window) {
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (long nanos : window) {
+            min = Math.min(min, nanos);
+            max = Math.max(max, nanos);
+        }
+        return max - min <= min * STEADY_STATE_TOLERANCE;
+    }
+
+    private static long runBatch(Op op) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            op.run(i);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * @return bytes allocated so far by the thread, or -1 if the JVM does not
+     * expose per-thread allocation counters
+     */
+    static long allocatedBytes(long threadId) {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(threadId);
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,172 @@
+package me.corer.verticaldrawerlayout;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.os.SystemClock;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Micro benchmarks for the VerticalDrawerLayout hot paths, run headlessly under
+ * Robolectric with {@code ./gradlew :benchmark:testDebugUnitTest}.
+ *
+ * <p>The absolute numbers include Robolectric's shadows and say little about a
+ * device. They are meant to be compared between commits of this library, see
+ * {@link BenchmarkReport}. The suite lives in the library's package so it can
+ * call the protected and package-private methods directly.</p>
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = me.corer.verticaldrawerlayout.benchmark.BuildConfig.class, sdk = 21)
+public class VerticalDrawerLayoutBenchmark {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int DRAWER_HEIGHT = 1200;
+    private static final long FRAME_MS = 16;
+
+    private static final BenchmarkReport sReport = new BenchmarkReport("VerticalDrawerLayout");
+
+    private VerticalDrawerLayout mLayout;
+    private View mDrawer;
+    private int mWidthSpec;
+    private int mHeightSpec;
+
+    @Before
+    public void setUp() {
+        final Context context = RuntimeEnvironment.application;
+        mLayout = new VerticalDrawerLayout(context);
+        final View content = new View(context);
+        final FrameLayout drawer = new FrameLayout(context);
+        drawer.setBackgroundColor(Color.WHITE);
+        for (int i = 0; i < 10; i++) {
+            drawer.addView(new View(context));
+        }
+        mLayout.addView(content, new VerticalDrawerLayout.LayoutParams(
+                VerticalDrawerLayout.LayoutParams.MATCH_PARENT,
+                VerticalDrawerLayout.LayoutParams.MATCH_PARENT));
+        mLayout.addView(drawer, new VerticalDrawerLayout.LayoutParams(
+                VerticalDrawerLayout.LayoutParams.MATCH_PARENT, DRAWER_HEIGHT));
+        mLayout.onFinishInflate();
+
+        // A typical listener, like the arrow rotation in the demo app.
+        final View arrow = new View(context);
+        mLayout.setDrawerListener(new VerticalDrawerLayout.SimpleDrawerListener() {
+            @Override
+            public void onDrawerSlide(View drawerView, float slideOffset) {
+                arrow.setRotation(slideOffset * 180);
+            }
+        });
+
+        mWidthSpec = View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY);
+        mHeightSpec = View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY);
+        mLayout.measure(mWidthSpec, mHeightSpec);
+        mLayout.layout(0, 0, WIDTH, HEIGHT);
+        mDrawer = mLayout.mDrawerView;
+    }
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        System.out.println("Wrote " + sReport.write().getAbsolutePath());
+        final List<String> regressions = sReport.compareWithBaseline();
+        assertTrue("Benchmark regressions: " + regressions, regressions.isEmpty());
+    }
+
+    @Test
+    public void onMeasure() {
+        sReport.add(MicroBenchmark.run("onMeasure", new MicroBenchmark.Op() {
+            @Override
+            public void run(int iteration) {
+                mLayout.onMeasure(mWidthSpec, mHeightSpec);
+            }
+        }));
+    }
+
+    @Test
+    public void onMeasureChildrenForced() {
+        sReport.add(MicroBenchmark.run("onMeasure_childrenForced", new MicroBenchmark.Op() {
+            @Override
+            public void run(int iteration) {
+                mLayout.mContentView.forceLayout();
+                mDrawer.forceLayout();
+                mLayout.onMeasure(mWidthSpec, mHeightSpec);
+            }
+        }));
+    }
+
+    @Test
+    public void onLayout() {
+        setDrawerTop(-DRAWER_HEIGHT / 2);
+        sReport.add(MicroBenchmark.run("onLayout", new MicroBenchmark.Op() {
+            @Override
+            public void run(int iteration) {
+                mLayout.onLayout(false, 0, 0, WIDTH, HEIGHT);
+            }
+        }));
+    }
+
+    @Test
+    public void drawChild() {
+        final Canvas canvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+        setDrawerTop(-DRAWER_HEIGHT / 2);
+        sReport.add(MicroBenchmark.run("drawChild", new MicroBenchmark.Op() {
+            @Override
+            public void run(int iteration) {
+                final long drawingTime = SystemClock.uptimeMillis();
+                mLayout.drawChild(canvas, mLayout.mContentView, drawingTime);
+                mLayout.drawChild(canvas, mDrawer, drawingTime);
+            }
+        }));
+    }
+
+    @Test
+    public void computeScroll() {
+        sReport.add(MicroBenchmark.run("computeScroll_settling", new MicroBenchmark.Op() {
+            @Override
+            public void run(int iteration) {
+                if (mLayout.getDrawerState() == VerticalDrawerLayout.STATE_IDLE) {
+                    if (mLayout.isDrawerOpen()) {
+                        mLayout.closeDrawer();
+                    } else {
+                        mLayout.openDrawerView();
+                    }
+                }
+                SystemClock.sleep(FRAME_MS);
+                mLayout.computeScroll();
+            }
+        }));
+    }
+
+    @Test
+    public void onViewPositionChanged() {
+        final VerticalDrawerLayout.ViewDragCallback callback = mLayout.mTopCallback;
+        sReport.add(MicroBenchmark.run("onViewPositionChanged", new MicroBenchmark.Op() {
+            @Override
+            public void run(int iteration) {
+                // Sweep the drawer from closed to open and back, 4px per step.
+                final int step = iteration % (DRAWER_HEIGHT / 2);
+                final int top = -DRAWER_HEIGHT + 4 * (step < DRAWER_HEIGHT / 4
+                        ? step : DRAWER_HEIGHT / 2 - step);
+                callback.onViewPositionChanged(mDrawer, 0, top, 0, 4);
+            }
+        }));
+    }
+
+    private void setDrawerTop(int top) {
+        mDrawer.offsetTopAndBottom(top - mDrawer.getTop());
+        mLayout.mTopCallback.onViewPositionChanged(mDrawer, 0, top, 0, 0);
+    }
+}
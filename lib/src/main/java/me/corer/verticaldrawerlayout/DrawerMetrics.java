@@ -0,0 +1,393 @@
+package me.corer.verticaldrawerlayout;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.Choreographer;
+
+/**
+ * Frame timing collected while a {@link VerticalDrawerLayout} drawer is dragged or
+ * settling. Enable it with {@link VerticalDrawerLayout#setDrawerMetricsEnabled(boolean)}.
+ *
+ * <p>While the drawer moves, a Choreographer frame callback records the interval
+ * between frames, counts the vsyncs that were missed, the time from the touch
+ * event that first moved the drawer to the start of the frame that drew it, and
+ * how long the settle took. All values go into fixed-size histograms, so recording does not
+ * allocate.</p>
+ *
+ * <p>Read the numbers on the main thread, either with {@link #snapshot()} /
+ * {@link #copyTo(DrawerMetrics)} or from {@link Callback#onDrawerAnimationEnd(DrawerMetrics)},
+ * which runs each time the drawer comes back to {@link VerticalDrawerLayout#STATE_IDLE}.</p>
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+public class DrawerMetrics implements Choreographer.FrameCallback {
+
+    public interface Callback {
+        /**
+         * Called when a drag or settle has finished and the drawer is idle. The
+         * {@code getLast*} values describe the animation that just ended.
+         *
+         * @param metrics the live metrics, only valid for the duration of the call
+         */
+        void onDrawerAnimationEnd(DrawerMetrics metrics);
+    }
+
+    private static final long NANOS_PER_MS = 1000000;
+    private static final float DEFAULT_REFRESH_RATE = 60.f;
+
+    // Bucket upper bounds in milliseconds. Frame buckets line up with one, two
+    // and three frames at 120, 90 and 60Hz.
+    private static final float[] FRAME_INTERVAL_BOUNDS = {
+            8.4f, 11.2f, 16.8f, 22.3f, 33.4f, 50.1f, 66.8f, 100.f
+    };
+    private static final float[] TOUCH_LATENCY_BOUNDS = {
+            4.f, 8.f, 12.f, 16.f, 24.f, 32.f, 48.f, 64.f, 100.f
+    };
+    private static final float[] SETTLE_DURATION_BOUNDS = {
+            100.f, 150.f, 200.f, 250.f, 300.f, 400.f, 500.f, 600.f, 800.f, 1000.f
+    };
+
+    private final Histogram mFrameIntervals = new Histogram(FRAME_INTERVAL_BOUNDS);
+    private final Histogram mTouchLatency = new Histogram(TOUCH_LATENCY_BOUNDS);
+    private final Histogram mSettleDuration = new Histogram(SETTLE_DURATION_BOUNDS);
+
+    private long mFrameIntervalNanos;
+    private Callback mCallback;
+
+    private int mAnimationCount;
+    private int mFrameCount;
+    private int mDroppedFrames;
+
+    private int mLastFrameCount;
+    private int mLastDroppedFrames;
+    private long mLastTouchLatencyNanos = -1;
+    private long mLastSettleNanos = -1;
+
+    // State of the animation in progress.
+    private boolean mRunning;
+    private long mLastFrameTimeNanos;
+    private long mTouchTimeNanos = -1;
+    private boolean mAwaitingMovedFrame;
+    private long mSettleStartNanos = -1;
+
+    public DrawerMetrics() {
+        this(DEFAULT_REFRESH_RATE);
+    }
+
+    /**
+     * @param refreshRate the display refresh rate in Hz, used to count dropped frames
+     */
+    public DrawerMetrics(float refreshRate) {
+        setRefreshRate(refreshRate);
+    }
+
+    public void setRefreshRate(float refreshRate) {
+        if (refreshRate <= 0) {
+            refreshRate = DEFAULT_REFRESH_RATE;
+        }
+        mFrameIntervalNanos = (long) (1000000000 / refreshRate);
+    }
+
+    public float getRefreshRate() {
+        return 1000000000.f / mFrameIntervalNanos;
+    }
+
+    public void setCallback(Callback callback) {
+        mCallback = callback;
+    }
+
+    /**
+     * Histogram of the intervals between consecutive frames while the drawer moved.
+     */
+    public Histogram getFrameIntervals() {
+        return mFrameIntervals;
+    }
+
+    /**
+     * Histogram of the time from the touch event that first moved the drawer in a
+     * drag to the start of the frame that drew that position: the frame's vsync
+     * time, not when it was shown. Rendering and composition of that frame come
+     * on top.
+     */
+    public Histogram getTouchLatency() {
+        return mTouchLatency;
+    }
+
+    /**
+     * Histogram of how long settles took, from the start of the settle until the
+     * drawer was idle.
+     */
+    public Histogram getSettleDuration() {
+        return mSettleDuration;
+    }
+
+    /**
+     * @return number of drags and settles recorded, counting a drag followed by
+     * its settle as one
+     */
+    public int getAnimationCount() {
+        return mAnimationCount;
+    }
+
+    public int getFrameCount() {
+        return mFrameCount;
+    }
+
+    /**
+     * @return the number of vsyncs that went by without a frame, over all animations
+     */
+    public int getDroppedFrames() {
+        return mDroppedFrames;
+    }
+
+    public int getLastFrameCount() {
+        return mLastFrameCount;
+    }
+
+    public int getLastDroppedFrames() {
+        return mLastDroppedFrames;
+    }
+
+    /**
+     * @return time from touch to frame start of the last animation in
+     * nanoseconds, as in {@link #getTouchLatency()}, or -1 if it was not
+     * started by a drag
+     */
+    public long getLastTouchLatencyNanos() {
+        return mLastTouchLatencyNanos;
+    }
+
+    /**
+     * @return settle time of the last animation in nanoseconds, or -1 if it
+     * ended without settling
+     */
+    public long getLastSettleNanos() {
+        return mLastSettleNanos;
+    }
+
+    /**
+     * @return a copy of the current values
+     */
+    public DrawerMetrics snapshot() {
+        final DrawerMetrics copy = new DrawerMetrics(getRefreshRate());
+        copyTo(copy);
+        return copy;
+    }
+
+    /**
+     * Copies the recorded values into {@code dest} without allocating. An
+     * animation in progress in this instance is not carried over.
+     */
+    public void copyTo(DrawerMetrics dest) {
+        dest.mFrameIntervalNanos = mFrameIntervalNanos;
+        dest.mFrameIntervals.copyFrom(mFrameIntervals);
+        dest.mTouchLatency.copyFrom(mTouchLatency);
+        dest.mSettleDuration.copyFrom(mSettleDuration);
+        dest.mAnimationCount = mAnimationCount;
+        dest.mFrameCount = mFrameCount;
+        dest.mDroppedFrames = mDroppedFrames;
+        dest.mLastFrameCount = mLastFrameCount;
+        dest.mLastDroppedFrames = mLastDroppedFrames;
+        dest.mLastTouchLatencyNanos = mLastTouchLatencyNanos;
+        dest.mLastSettleNanos = mLastSettleNanos;
+    }
+
+    public void reset() {
+        mFrameIntervals.reset();
+        mTouchLatency.reset();
+        mSettleDuration.reset();
+        mAnimationCount = 0;
+        mFrameCount = 0;
+        mDroppedFrames = 0;
+        mLastFrameCount = 0;
+        mLastDroppedFrames = 0;
+        mLastTouchLatencyNanos = -1;
+        mLastSettleNanos = -1;
+    }
+
+    void onDrawerStateChanged(int oldState, int newState) {
+        if (oldState == VerticalDrawerLayout.STATE_IDLE) {
+            start();
+        }
+        if (newState == VerticalDrawerLayout.STATE_SETTLING) {
+            mSettleStartNanos = System.nanoTime();
+        } else if (newState == VerticalDrawerLayout.STATE_IDLE) {
+            finish();
+        }
+    }
+
+    /**
+     * Called when the drawer position changes.
+     *
+     * @param eventTimeMillis the {@link android.view.MotionEvent#getEventTime()} of
+     *                        the touch that caused the move, or -1 if it did not
+     *                        come from a drag
+     */
+    void onDrawerMoved(long eventTimeMillis) {
+        if (mRunning && mTouchTimeNanos < 0 && eventTimeMillis >= 0) {
+            mTouchTimeNanos = eventTimeMillis * NANOS_PER_MS;
+            mAwaitingMovedFrame = true;
+        }
+    }
+
+    void stop() {
+        if (mRunning) {
+            mRunning = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    private void start() {
+        stop();
+        mRunning = true;
+        mLastFrameTimeNanos = 0;
+        mTouchTimeNanos = -1;
+        mAwaitingMovedFrame = false;
+        mSettleStartNanos = -1;
+        mLastFrameCount = 0;
+        mLastDroppedFrames = 0;
+        mLastTouchLatencyNanos = -1;
+        mLastSettleNanos = -1;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    private void finish() {
+        if (!mRunning) {
+            return;
+        }
+        stop();
+        if (mSettleStartNanos >= 0) {
+            mLastSettleNanos = System.nanoTime() - mSettleStartNanos;
+            mSettleDuration.record(mLastSettleNanos);
+        }
+        mAnimationCount++;
+        if (mCallback != null) {
+            mCallback.onDrawerAnimationEnd(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mRunning) {
+            return;
+        }
+        if (mLastFrameTimeNanos != 0) {
+            final long interval = frameTimeNanos - mLastFrameTimeNanos;
+            mFrameIntervals.record(interval);
+            // Round so that normal vsync jitter does not count as a drop.
+            final int dropped = (int) ((interval + mFrameIntervalNanos / 2) / mFrameIntervalNanos) - 1;
+            if (dropped > 0) {
+                mDroppedFrames += dropped;
+                mLastDroppedFrames += dropped;
+            }
+        }
+        mLastFrameTimeNanos = frameTimeNanos;
+        mFrameCount++;
+        mLastFrameCount++;
+
+        if (mAwaitingMovedFrame) {
+            mAwaitingMovedFrame = false;
+            // To the frame's vsync time; when it reaches the screen isn't known here.
+            mLastTouchLatencyNanos = Math.max(0, frameTimeNanos - mTouchTimeNanos);
+            mTouchLatency.record(mLastTouchLatencyNanos);
+        }
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * Fixed-bucket histogram of durations. Bucket {@code i} counts values up to
+     * {@link #getBucketUpperBoundMillis(int)}; the last bucket has no upper bound.
+     */
+    public static final class Histogram {
+        private final long[] mUpperBounds;
+        private final int[] mCounts;
+        private int mCount;
+        private long mSumNanos;
+        private long mMaxNanos;
+
+        Histogram(float[] upperBoundsMillis) {
+            mUpperBounds = new long[upperBoundsMillis.length];
+            for (int i = 0; i < upperBoundsMillis.length; i++) {
+                mUpperBounds[i] = (long) (upperBoundsMillis[i] * NANOS_PER_MS);
+            }
+            mCounts = new int[upperBoundsMillis.length + 1];
+        }
+
+        void record(long nanos) {
+            int bucket = 0;
+            while (bucket < mUpperBounds.length && nanos > mUpperBounds[bucket]) {
+                bucket++;
+            }
+            mCounts[bucket]++;
+            mCount++;
+            mSumNanos += nanos;
+            if (nanos > mMaxNanos) {
+                mMaxNanos = nanos;
+            }
+        }
+
+        void copyFrom(Histogram source) {
+            System.arraycopy(source.mCounts, 0, mCounts, 0, mCounts.length);
+            mCount = source.mCount;
+            mSumNanos = source.mSumNanos;
+            mMaxNanos = source.mMaxNanos;
+        }
+
+        void reset() {
+            for (int i = 0; i < mCounts.length; i++) {
+                mCounts[i] = 0;
+            }
+            mCount = 0;
+            mSumNanos = 0;
+            mMaxNanos = 0;
+        }
+
+        public int getBucketCount() {
+            return mCounts.length;
+        }
+
+        /**
+         * @return the inclusive upper bound of the bucket in milliseconds, or
+         * {@link Float#POSITIVE_INFINITY} for the last bucket
+         */
+        public float getBucketUpperBoundMillis(int bucket) {
+            return bucket < mUpperBounds.length
+                    ? (float) mUpperBounds[bucket] / NANOS_PER_MS : Float.POSITIVE_INFINITY;
+        }
+
+        public int getBucketValue(int bucket) {
+            return mCounts[bucket];
+        }
+
+        public int getCount() {
+            return mCount;
+        }
+
+        public long getMeanNanos() {
+            return mCount == 0 ? 0 : mSumNanos / mCount;
+        }
+
+        public long getMaxNanos() {
+            return mMaxNanos;
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return upper bound in milliseconds of the bucket that holds the given
+         * percentile, or 0 if nothing was recorded
+         */
+        public float getPercentileMillis(float percentile) {
+            if (mCount == 0) {
+                return 0;
+            }
+            final int target = (int) Math.ceil(mCount * percentile / 100.f);
+            int seen = 0;
+            for (int i = 0; i < mCounts.length; i++) {
+                seen += mCounts[i];
+                if (seen >= target) {
+                    return getBucketUpperBoundMillis(i);
+                }
+            }
+            return Float.POSITIVE_INFINITY;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package me.corer.verticaldrawerlayout;
+
+import android.os.SystemClock;
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+
+/**
+ * Runnables that {@link VerticalDrawerLayout#postWhenIdle(Runnable)} holds back
+ * until no drawer moves.
+ *
+ * <p>While the layout is idle the queue runs once per frame, in order, until
+ * {@link #FRAME_BUDGET_MS} is used up, and continues on the next frame with the
+ * rest. When a drawer starts moving the queue stops where it is; the remaining
+ * runnables are kept and run once the drawer is idle again.</p>
+ */
+final class IdleWorkQueue implements Runnable {
+
+    /**
+     * Time a batch may take before the rest waits for the next frame, leaving
+     * most of a 60Hz frame to drawing. The runnable that crosses it still
+     * finishes, so one slow runnable can overrun the frame.
+     */
+    static final long FRAME_BUDGET_MS = 4;
+
+    private final View mHost;
+    private final ArrayDeque<Runnable> mActions = new ArrayDeque<>();
+    // A new layout has no drawer moving yet.
+    private boolean mIdle = true;
+    private boolean mScheduled;
+
+    IdleWorkQueue(View host) {
+        mHost = host;
+    }
+
+    void post(Runnable action) {
+        mActions.addLast(action);
+        schedule();
+    }
+
+    /**
+     * Removes every pending instance of {@code action}.
+     */
+    void remove(Runnable action) {
+        mActions.removeAll(Collections.singleton(action));
+        if (mActions.isEmpty()) {
+            unschedule();
+        }
+    }
+
+    int size() {
+        return mActions.size();
+    }
+
+    /**
+     * Starts the queue when the host is idle and postpones it otherwise.
+     */
+    void setIdle(boolean idle) {
+        if (mIdle == idle) {
+            return;
+        }
+        mIdle = idle;
+        if (idle) {
+            schedule();
+        } else {
+            unschedule();
+        }
+    }
+
+    @Override
+    public void run() {
+        mScheduled = false;
+        final long start = SystemClock.uptimeMillis();
+        // A runnable may start a drag or settle, which stops the batch right away.
+        while (mIdle && !mActions.isEmpty()) {
+            mActions.pollFirst().run();
+            if (SystemClock.uptimeMillis() - start >= FRAME_BUDGET_MS) {
+                break;
+            }
+        }
+        schedule();
+    }
+
+    private void schedule() {
+        if (mIdle && !mScheduled && !mActions.isEmpty()) {
+            mScheduled = true;
+            ViewCompat.postOnAnimation(mHost, this);
+        }
+    }
+
+    private void unschedule() {
+        if (mScheduled) {
+            mScheduled = false;
+            mHost.removeCallbacks(this);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package me.corer.verticaldrawerlayout;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.content.Context;
+import android.os.Process;
+import android.util.AttributeSet;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Inflates the lazy drawer layout of a {@link VerticalDrawerLayout} on a background
+ * thread and hands the result to the main thread.
+ *
+ * <p>Inflation can be started early ({@link #scheduleOnIdle()} or
+ * {@link #startAsync()}), and {@link #finish()} gets the views synchronously when
+ * they are needed right away: it waits for an inflation in progress, or inflates on
+ * the calling thread if none was started. Inflating off the main thread has the
+ * same caveats as the support library's AsyncLayoutInflater. If it throws, the
+ * layout is inflated again on the main thread.</p>
+ *
+ * <p>Like AsyncLayoutInflater, the background thread inflates without the
+ * context's {@link LayoutInflater.Factory}, because factories such as
+ * AppCompat's share state between inflations and aren't thread-safe. AppCompat
+ * therefore doesn't substitute its widgets in a drawer inflated in the
+ * background; a drawer layout that needs them names the AppCompat classes.</p>
+ */
+final class LazyDrawerInflater implements Runnable, MessageQueue.IdleHandler {
+
+    interface Callback {
+        /**
+         * Called on the main thread once, with the inflated, not yet attached views.
+         */
+        void onDrawerInflated(View drawerContent);
+    }
+
+    private static final String TAG = "VerticalDrawerLayout";
+
+    private static final int STATE_NONE = 0;
+    private static final int STATE_RUNNING = 1;
+    private static final int STATE_DONE = 2;
+
+    private final ViewGroup mPlaceholder;
+    private final int mLayoutResId;
+    private final Callback mCallback;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    // Used only by the background thread. Tests replace it before it starts.
+    LayoutInflater mBackgroundInflater;
+
+    // Only touched on the main thread.
+    private int mState = STATE_NONE;
+    private boolean mIdleScheduled;
+    private Thread mThread;
+
+    // Written by the background thread, read after joining it.
+    private volatile View mResult;
+    private volatile RuntimeException mError;
+
+    private final Runnable mDeliverRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (mState == STATE_RUNNING) {
+                finish();
+            }
+        }
+    };
+
+    LazyDrawerInflater(ViewGroup placeholder, int layoutResId, Callback callback) {
+        mPlaceholder = placeholder;
+        mLayoutResId = layoutResId;
+        mCallback = callback;
+        mBackgroundInflater = new BasicInflater(placeholder.getContext());
+    }
+
+    boolean isDone() {
+        return mState == STATE_DONE;
+    }
+
+    /**
+     * Starts the background inflation the next time the main thread is idle.
+     */
+    void scheduleOnIdle() {
+        if (mState == STATE_NONE && !mIdleScheduled) {
+            mIdleScheduled = true;
+            Looper.myQueue().addIdleHandler(this);
+        }
+    }
+
+    void cancelIdle() {
+        if (mIdleScheduled) {
+            mIdleScheduled = false;
+            Looper.myQueue().removeIdleHandler(this);
+        }
+    }
+
+    @Override
+    public boolean queueIdle() {
+        mIdleScheduled = false;
+        startAsync();
+        return false;
+    }
+
+    /**
+     * Starts inflating on a background thread, unless that already happened.
+     */
+    void startAsync() {
+        if (mState != STATE_NONE) {
+            return;
+        }
+        cancelIdle();
+        mState = STATE_RUNNING;
+        mThread = new Thread(this, "VerticalDrawerLayout-inflate");
+        mThread.start();
+    }
+
+    /**
+     * Delivers the drawer content now, waiting for a background inflation in
+     * progress or inflating on this thread. Does nothing if it was delivered
+     * already.
+     */
+    void finish() {
+        if (mState == STATE_DONE) {
+            return;
+        }
+        cancelIdle();
+        View content = null;
+        if (mState == STATE_RUNNING) {
+            mMainHandler.removeCallbacks(mDeliverRunnable);
+            boolean interrupted = false;
+            while (mThread.isAlive()) {
+                try {
+                    mThread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            content = mResult;
+            if (content == null) {
+                Log.w(TAG, "Background drawer inflation failed, inflating on the main thread", mError);
+            }
+        }
+        if (content == null) {
+            content = inflate(LayoutInflater.from(mPlaceholder.getContext()));
+        }
+        mState = STATE_DONE;
+        mThread = null;
+        mResult = null;
+        mError = null;
+        mCallback.onDrawerInflated(content);
+    }
+
+    @Override
+    public void run() {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+        try {
+            mResult = inflate(mBackgroundInflater);
+        } catch (RuntimeException e) {
+            mError = e;
+        }
+        mMainHandler.post(mDeliverRunnable);
+    }
+
+    private View inflate(LayoutInflater inflater) {
+        return inflater.inflate(mLayoutResId, mPlaceholder, false);
+    }
+
+    /**
+     * An inflater of its own, without factories, that finds framework views the
+     * way the platform's PhoneLayoutInflater does. The same as
+     * AsyncLayoutInflater's.
+     */
+    private static class BasicInflater extends LayoutInflater {
+        private static final String[] sClassPrefixList = {
+                "android.widget.",
+                "android.webkit.",
+                "android.app."
+        };
+
+        BasicInflater(Context context) {
+            super(context);
+        }
+
+        @Override
+        public LayoutInflater cloneInContext(Context newContext) {
+            return new BasicInflater(newContext);
+        }
+
+        @Override
+        protected View onCreateView(String name, AttributeSet attrs) throws ClassNotFoundException {
+            for (String prefix : sClassPrefixList) {
+                try {
+                    final View view = createView(name, prefix, attrs);
+                    if (view != null) {
+                        return view;
+                    }
+                } catch (ClassNotFoundException e) {
+                    // Try the next prefix.
+                }
+            }
+            return super.onCreateView(name, attrs);
+        }
+    }
+}
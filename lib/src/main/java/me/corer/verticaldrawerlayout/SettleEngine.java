@@ -0,0 +1,44 @@
+package me.corer.verticaldrawerlayout;
+
+/**
+ * Physics used to settle a {@link VerticalDrawerLayout} drawer after a release or an
+ * open/close call. Set one with {@link VerticalDrawerLayout#setSettleEngine(SettleEngine)};
+ * the default is a critically damped {@link SpringSettleEngine}.
+ *
+ * <p>The layout owns the {@link Motion} and calls {@link #step(Motion, float)} once
+ * per frame from {@code computeScroll()}, with the time since the previous frame
+ * taken from the frame timestamp. A settle that is retargeted mid-way, for example
+ * by reversing it with {@link VerticalDrawerLayout#closeDrawer()}, keeps its
+ * position and velocity. Implementations must not allocate in {@code step}.</p>
+ */
+public interface SettleEngine {
+
+    /**
+     * State of a settle in progress, in pixels along the drawer's axis.
+     */
+    final class Motion {
+        /**
+         * Current drawer top.
+         */
+        public float position;
+        /**
+         * Current velocity in pixels per second, positive towards the bottom.
+         */
+        public float velocity;
+        /**
+         * Drawer top the settle ends at.
+         */
+        public float target;
+    }
+
+    /**
+     * Advances the motion by {@code deltaSeconds}, updating its position and
+     * velocity. When it returns false the settle ends, so it should leave
+     * {@code position} at {@code target} by then.
+     *
+     * @param motion       the settle to advance
+     * @param deltaSeconds time since the last step; 0 on the frame the settle started
+     * @return true while the drawer is still moving
+     */
+    boolean step(Motion motion, float deltaSeconds);
+}
@@ -0,0 +1,144 @@
+package me.corer.verticaldrawerlayout;
+
+import android.animation.TimeInterpolator;
+import android.view.View;
+
+/**
+ * View properties bound to one drawer's slide offset with
+ * {@link VerticalDrawerLayout#bindProperty(View, int, float, float, TimeInterpolator)}.
+ *
+ * <p>Bindings are kept in parallel arrays, so applying them is a single loop
+ * over primitives: no listener calls, no boxing and no allocation. The order in
+ * which they are applied is not defined.</p>
+ */
+final class SlideBindings {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private View[] mViews = new View[INITIAL_CAPACITY];
+    private int[] mProperties = new int[INITIAL_CAPACITY];
+    private float[] mFrom = new float[INITIAL_CAPACITY];
+    private float[] mTo = new float[INITIAL_CAPACITY];
+    private TimeInterpolator[] mInterpolators = new TimeInterpolator[INITIAL_CAPACITY];
+    private int mCount;
+
+    /**
+     * Adds a binding, or replaces the one for the same view and property.
+     */
+    void put(View view, int property, float from, float to, TimeInterpolator interpolator) {
+        int index = indexOf(view, property);
+        if (index < 0) {
+            if (mCount == mViews.length) {
+                grow();
+            }
+            index = mCount++;
+            mViews[index] = view;
+            mProperties[index] = property;
+        }
+        mFrom[index] = from;
+        mTo[index] = to;
+        mInterpolators[index] = interpolator;
+    }
+
+    /**
+     * @return true if there was a binding to remove
+     */
+    boolean remove(View view, int property) {
+        final int index = indexOf(view, property);
+        if (index < 0) {
+            return false;
+        }
+        // Order doesn't matter, so the last binding fills the gap.
+        final int last = --mCount;
+        mViews[index] = mViews[last];
+        mProperties[index] = mProperties[last];
+        mFrom[index] = mFrom[last];
+        mTo[index] = mTo[last];
+        mInterpolators[index] = mInterpolators[last];
+        mViews[last] = null;
+        mInterpolators[last] = null;
+        return true;
+    }
+
+    boolean isEmpty() {
+        return mCount == 0;
+    }
+
+    /**
+     * Sets every bound property to its value at {@code slideOffset}.
+     */
+    void apply(float slideOffset) {
+        final View[] views = mViews;
+        final int[] properties = mProperties;
+        final float[] from = mFrom;
+        final float[] to = mTo;
+        final TimeInterpolator[] interpolators = mInterpolators;
+        for (int i = 0, count = mCount; i < count; i++) {
+            final TimeInterpolator interpolator = interpolators[i];
+            final float fraction = interpolator != null
+                    ? interpolator.getInterpolation(slideOffset) : slideOffset;
+            setProperty(views[i], properties[i], from[i] + (to[i] - from[i]) * fraction);
+        }
+    }
+
+    private int indexOf(View view, int property) {
+        for (int i = 0; i < mCount; i++) {
+            if (mViews[i] == view && mProperties[i] == property) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void grow() {
+        final int capacity = mViews.length * 2;
+        final View[] views = new View[capacity];
+        final int[] properties = new int[capacity];
+        final float[] from = new float[capacity];
+        final float[] to = new float[capacity];
+        final TimeInterpolator[] interpolators = new TimeInterpolator[capacity];
+        System.arraycopy(mViews, 0, views, 0, mCount);
+        System.arraycopy(mProperties, 0, properties, 0, mCount);
+        System.arraycopy(mFrom, 0, from, 0, mCount);
+        System.arraycopy(mTo, 0, to, 0, mCount);
+        System.arraycopy(mInterpolators, 0, interpolators, 0, mCount);
+        mViews = views;
+        mProperties = properties;
+        mFrom = from;
+        mTo = to;
+        mInterpolators = interpolators;
+    }
+
+    private static void setProperty(View view, int property, float value) {
+        switch (property) {
+            case VerticalDrawerLayout.PROPERTY_ALPHA:
+                view.setAlpha(value);
+                break;
+            case VerticalDrawerLayout.PROPERTY_TRANSLATION_X:
+                view.setTranslationX(value);
+                break;
+            case VerticalDrawerLayout.PROPERTY_TRANSLATION_Y:
+                view.setTranslationY(value);
+                break;
+            case VerticalDrawerLayout.PROPERTY_SCALE_X:
+                view.setScaleX(value);
+                break;
+            case VerticalDrawerLayout.PROPERTY_SCALE_Y:
+                view.setScaleY(value);
+                break;
+            case VerticalDrawerLayout.PROPERTY_SCALE:
+                view.setScaleX(value);
+                view.setScaleY(value);
+                break;
+            case VerticalDrawerLayout.PROPERTY_ROTATION:
+                view.setRotation(value);
+                break;
+            case VerticalDrawerLayout.PROPERTY_ROTATION_X:
+                view.setRotationX(value);
+                break;
+            case VerticalDrawerLayout.PROPERTY_ROTATION_Y:
+                view.setRotationY(value);
+                break;
+        }
+    }
+}
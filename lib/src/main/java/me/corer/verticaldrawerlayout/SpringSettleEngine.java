@@ -0,0 +1,55 @@
+package me.corer.verticaldrawerlayout;
+
+/**
+ * A critically damped spring: the fastest settle that does not oscillate. It is
+ * evaluated in closed form, so any frame interval (60, 90 or 120Hz, or a long
+ * frame after a stall) gives the same curve.
+ */
+public class SpringSettleEngine implements SettleEngine {
+
+    /**
+     * Settles a drawer of about 1000px from rest in roughly 350ms.
+     */
+    public static final float DEFAULT_STIFFNESS = 800.f;
+
+    private static final float REST_DISTANCE = 0.5f; // px
+    private static final float REST_VELOCITY = 5.f; // px per second
+
+    private final float mNaturalFrequency;
+
+    public SpringSettleEngine() {
+        this(DEFAULT_STIFFNESS);
+    }
+
+    /**
+     * @param stiffness spring constant for a unit mass; larger settles faster
+     */
+    public SpringSettleEngine(float stiffness) {
+        if (stiffness <= 0) {
+            throw new IllegalArgumentException("stiffness must be positive");
+        }
+        mNaturalFrequency = (float) Math.sqrt(stiffness);
+    }
+
+    @Override
+    public boolean step(Motion motion, float deltaSeconds) {
+        final float w = mNaturalFrequency;
+        final float x0 = motion.position - motion.target;
+        final float v0 = motion.velocity;
+
+        // x(t) = (x0 + (v0 + w * x0) * t) * e^(-w * t)
+        final float b = v0 + w * x0;
+        final float decay = (float) Math.exp(-w * deltaSeconds);
+        final float x = (x0 + b * deltaSeconds) * decay;
+        final float v = (v0 - w * b * deltaSeconds) * decay;
+
+        if (Math.abs(x) < REST_DISTANCE && Math.abs(v) < REST_VELOCITY) {
+            motion.position = motion.target;
+            motion.velocity = 0;
+            return false;
+        }
+        motion.position = motion.target + x;
+        motion.velocity = v;
+        return true;
+    }
+}
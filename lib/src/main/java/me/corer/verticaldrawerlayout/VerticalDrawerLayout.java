@@ -1,33 +1,53 @@
 package me.corer.verticaldrawerlayout;
 
+import android.animation.TimeInterpolator;
+import android.app.ActivityManager;
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.Region;
 import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.provider.Settings;
+import android.support.annotation.ColorInt;
 import android.support.annotation.IntDef;
+import android.support.annotation.LayoutRes;
+import android.support.v4.app.ActivityManagerCompat;
 import android.support.v4.view.KeyEventCompat;
 import android.support.v4.view.MotionEventCompat;
+import android.support.v4.view.NestedScrollingChild;
+import android.support.v4.view.NestedScrollingChildHelper;
+import android.support.v4.view.NestedScrollingParent;
+import android.support.v4.view.NestedScrollingParentHelper;
 import android.support.v4.view.ViewCompat;
 import android.support.v4.widget.ViewDragHelper;
 import android.util.AttributeSet;
+import android.view.Display;
 import android.view.Gravity;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.accessibility.AccessibilityEvent;
+import android.view.animation.AnimationUtils;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.Arrays;
 
 /**
  * 作者： corer.zhang   时间： 16/3/29.
  * 功能：
  * 修改：
  */
-public class VerticalDrawerLayout extends ViewGroup {
+public class VerticalDrawerLayout extends ViewGroup
+        implements NestedScrollingParent, NestedScrollingChild {
 
     @IntDef({STATE_IDLE, STATE_DRAGGING, STATE_SETTLING})
     @Retention(RetentionPolicy.SOURCE)
@@ -48,27 +68,246 @@ public class VerticalDrawerLayout extends ViewGroup {
      */
     public static final int STATE_SETTLING = ViewDragHelper.STATE_SETTLING;
 
+    @IntDef({PROPERTY_ALPHA, PROPERTY_TRANSLATION_X, PROPERTY_TRANSLATION_Y, PROPERTY_SCALE_X,
+            PROPERTY_SCALE_Y, PROPERTY_SCALE, PROPERTY_ROTATION, PROPERTY_ROTATION_X,
+            PROPERTY_ROTATION_Y})
+    @Retention(RetentionPolicy.SOURCE)
+    private @interface BindableProperty {
+    }
+
+    /**
+     * View properties that {@link #bindProperty(View, int, float, float, TimeInterpolator)}
+     * can drive from a drawer's slide offset.
+     */
+    public static final int PROPERTY_ALPHA = 0;
+    public static final int PROPERTY_TRANSLATION_X = 1;
+    public static final int PROPERTY_TRANSLATION_Y = 2;
+    public static final int PROPERTY_SCALE_X = 3;
+    public static final int PROPERTY_SCALE_Y = 4;
+    /**
+     * Both {@link #PROPERTY_SCALE_X} and {@link #PROPERTY_SCALE_Y}.
+     */
+    public static final int PROPERTY_SCALE = 5;
+    public static final int PROPERTY_ROTATION = 6;
+    public static final int PROPERTY_ROTATION_X = 7;
+    public static final int PROPERTY_ROTATION_Y = 8;
+
     private static final int MIN_DRAWER_MARGIN = 64; // dp
     private static final int MIN_FLING_VELOCITY = 400; // dips per second
 
+    /**
+     * Number of frames within one motion in which the drawer may redraw its own
+     * content before we stop keeping it on a hardware layer. The first frame
+     * after promotion always counts, since that is when the layer is built.
+     */
+    private static final int MAX_DIRTY_LAYER_FRAMES = 2;
+
+    /**
+     * How long a drawer prepared with {@link #prepareToOpen()} or by a touch in
+     * its edge zone keeps its layer if it does not start moving.
+     */
+    private static final long PREPARED_LAYER_TIMEOUT_MS = 500;
+
+    /**
+     * Never produced by MeasureSpec.makeMeasureSpec, which only uses the three
+     * defined modes, so a child holding it has not been measured yet.
+     */
+    private static final int INVALID_MEASURE_SPEC = 0xffffffff;
+
+    /**
+     * How far ahead a release velocity is projected when picking the anchor to
+     * settle at, so a quick fling can pass over an anchor in between.
+     */
+    private static final float FLING_PROJECTION_SECONDS = 0.2f;
+
+    private static final float[] EMPTY_FRACTIONS = new float[0];
+
+    /**
+     * Whether drawers cast their shadow through elevation, which the platform
+     * renders, instead of drawing {@link #setDrawerShadow(Drawable)}.
+     */
+    static final boolean SET_DRAWER_SHADOW_FROM_ELEVATION =
+            Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP;
+
     private int mMinDrawerMargin;
     private float mContentScrimOpacity;
 
+    private float mContentPushFactor;
+    private float mContentPushScale = 1.f;
+    // True once the content's translation and scale are ours to reset.
+    private boolean mContentPushed;
+
+    private int mChildMeasureCount;
+    private int mSkippedChildMeasureCount;
+
     private static final int DEFAULT_CONTENT_SCRIM_COLOR = 0x99000000;
     private int mContentScrimColor = DEFAULT_CONTENT_SCRIM_COLOR;
-    private final Paint mContentScrimPaint = new Paint();
+
+    /**
+     * The region last invalidated for a drawer move or settle. Reused so that
+     * building it doesn't allocate on each step.
+     */
+    final Rect mInvalidRect = new Rect();
+
+    /**
+     * Scratch rects for the opaque part and the visible slice of a drawer while
+     * drawing.
+     */
+    private final Rect mOpaqueRect = new Rect();
+    private final Rect mDrawerClipRect = new Rect();
+
+    /**
+     * The opaque parts of the top and bottom drawer, found once per content
+     * draw and shared by every clip made from them.
+     */
+    private final Rect mTopOpaqueRect = new Rect();
+    private final Rect mBottomOpaqueRect = new Rect();
+
+    /**
+     * Scratch rect for the on-screen part of the content view while checking
+     * whether a drawer covers it.
+     */
+    private final Rect mContentRect = new Rect();
 
     private boolean mInLayout;
     private boolean mFirstLayout = true;
     private int mDrawerState;
 
-    ViewDragHelper mDragHelper;
+    private boolean mLayerPromotionEnabled;
+    private View mPromotedDrawer;
+    private boolean mContentLayerPromoted;
+    private int mDirtyDrawerFrames;
+    final Runnable mReleasePreparedLayersRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (mDrawerState == STATE_IDLE) {
+                restoreDrawerLayers();
+            }
+        }
+    };
+
+    final IdleWorkQueue mIdleWork = new IdleWorkQueue(this);
+
+    private boolean mTranslationPositioning;
+
+    private SettleEngine mSettleEngine = new SpringSettleEngine();
+
+    @IntDef({MOTION_AUTO, MOTION_ANIMATED, MOTION_SHORTENED, MOTION_INSTANT})
+    @Retention(RetentionPolicy.SOURCE)
+    private @interface MotionPolicy {
+    }
+
+    /**
+     * Picks one of the other policies from the device: instant if animations
+     * are turned off, shortened on a low RAM device, animated otherwise.
+     */
+    public static final int MOTION_AUTO = 0;
+    /**
+     * Drawers settle with the full animation of the {@link SettleEngine}.
+     */
+    public static final int MOTION_ANIMATED = 1;
+    /**
+     * Settles run {@link #SHORTENED_SETTLE_SPEEDUP} times as fast, in fewer frames.
+     */
+    public static final int MOTION_SHORTENED = 2;
+    /**
+     * Drawers go straight to where they would settle, without animating.
+     */
+    public static final int MOTION_INSTANT = 3;
+
+    private static final float SHORTENED_SETTLE_SPEEDUP = 2.f;
+
+    private int mMotionPolicy = MOTION_AUTO;
+    // MOTION_AUTO until resolved again, on attach or when the policy changes.
+    private int mResolvedMotionPolicy = MOTION_AUTO;
+    // True while any drawer is settling; the motion itself is per drawer.
+    private boolean mSettling;
+
+    private float mLastMotionX;
+    private float mLastMotionY;
+    private long mLastMotionEventTime;
+    private boolean mDownInEdge;
+
+    private static final int GESTURE_AXIS_UNDECIDED = 0;
+    private static final int GESTURE_AXIS_VERTICAL = 1;
+    private static final int GESTURE_AXIS_HORIZONTAL = 2;
+
+    // Decided once per gesture, when it first moves past the touch slop.
+    private int mGestureAxis;
+    private float mInitialMotionX;
+    private float mInitialMotionY;
+    private int mInterceptedEventCount;
+    private int mPassedThroughEventCount;
+
+    private final NestedScrollingParentHelper mNestedScrollingParentHelper =
+            new NestedScrollingParentHelper(this);
+    // Passes on to our own parent what the drawers leave of a nested scroll.
+    private final NestedScrollingChildHelper mNestedScrollingChildHelper =
+            new NestedScrollingChildHelper(this);
+    private final int[] mParentScrollConsumed = new int[2];
+    private boolean mNestedScrollInProgress;
+    private View mNestedScrollChild;
+    private View mNestedDrawer;
+
+    DrawerMetrics mMetrics;
+
+    private int mPeekHeight;
+    private float[] mAnchorFractions = EMPTY_FRACTIONS;
+
+    private int mLazyDrawerLayoutRes;
+    LazyDrawerInflater mLazyInflater;
+
+    final ViewDragHelper mDragHelper;
+    final ViewDragHelper mBottomDragHelper;
+    // Each is wired to its helper in the constructor, and only there.
+    final ViewDragCallback mTopCallback;
+    final ViewDragCallback mBottomCallback;
     View mContentView;
+
+    /**
+     * The drawer that the gravity-less methods such as {@link #openDrawerView()}
+     * act on: the top drawer if there is one, else the bottom drawer.
+     */
     View mDrawerView;
 
+    // Resolved from layout_gravity once, in onFinishInflate. Either may be null.
+    View mTopDrawerView;
+    View mBottomDrawerView;
+
+    private static final DrawerListener[] EMPTY_LISTENERS = new DrawerListener[0];
+
+    /**
+     * Registered listeners. The array is never modified in place: add and remove
+     * swap in a new copy, so dispatch can walk a snapshot without an iterator,
+     * and listeners added or removed during a callback take effect from the
+     * next dispatch.
+     */
+    DrawerListener[] mListeners = EMPTY_LISTENERS;
     DrawerListener mListener;
-    Drawable mShadow;
 
+    private boolean mContentCovered;
+    private boolean mContentHidden;
+    private ContentOcclusionListener mOcclusionListener;
+
+    private boolean mCoalesceSlideDispatch;
+    private float mSlideDispatchThreshold;
+    private boolean mSlideDispatchPending;
+    private View mPendingSlideView;
+    private float mPendingSlideOffset;
+    // Posted to run on the next animation frame.
+    final Runnable mSlideDispatchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flushPendingSlide();
+        }
+    };
+    Drawable mShadow;
+    // mShadow rasterized once at the drawer width, drawn with a fading paint.
+    Bitmap mShadowStrip;
+    private Paint mShadowPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    // Last alpha set on mShadowPaint.
+    private int mShadowAlpha = 0xff;
+    private float mDrawerElevation;
 
 
     public VerticalDrawerLayout(Context context) {
@@ -85,87 +324,1502 @@ public class VerticalDrawerLayout extends ViewGroup {
         mMinDrawerMargin = (int) (MIN_DRAWER_MARGIN * density + 0.5f);
         final float minVel = MIN_FLING_VELOCITY * density;
 
-        mDragHelper = ViewDragHelper.create(this, 1.0f, new ViewDragCallback());
-        mDragHelper.setMinVelocity(minVel);
+        final TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.VerticalDrawerLayout);
+        mLazyDrawerLayoutRes = a.getResourceId(R.styleable.VerticalDrawerLayout_lazyDrawerLayout, 0);
+        mPeekHeight = a.getDimensionPixelSize(R.styleable.VerticalDrawerLayout_drawerPeekHeight, 0);
+        final float anchorFraction = a.getFloat(R.styleable.VerticalDrawerLayout_drawerAnchorFraction, 0);
+        final float pushFactor = a.getFloat(R.styleable.VerticalDrawerLayout_contentPushFactor, 0);
+        final float pushScale = a.getFloat(R.styleable.VerticalDrawerLayout_contentPushScale, 1);
+        a.recycle();
+        if (anchorFraction != 0) {
+            setDrawerAnchorFractions(anchorFraction);
+        }
+        setContentPushFactor(pushFactor);
+        setContentPushScale(pushScale);
+
+        mTopCallback = new ViewDragCallback(Gravity.TOP);
+        mDragHelper = createDragHelper(mTopCallback, ViewDragHelper.EDGE_TOP, minVel);
+        mBottomCallback = new ViewDragCallback(Gravity.BOTTOM);
+        mBottomDragHelper = createDragHelper(mBottomCallback, ViewDragHelper.EDGE_BOTTOM, minVel);
         // So that we can catch the back button
         setFocusableInTouchMode(true);
+        setNestedScrollingEnabled(true);
     }
 
+    /**
+     * Set a drawable drawn below the drawer's edge as its shadow. Ignored on
+     * API 21 and up while a {@link #setDrawerElevation(float) drawer elevation}
+     * is set, since the platform then renders the shadow.
+     *
+     * <p>The drawable is rasterized once into a strip of its intrinsic height
+     * at the drawer width, and only that strip is drawn, faded in over the
+     * first pixels of the drawer showing. A drawable without an intrinsic
+     * height draws nothing.</p>
+     *
+     * @param shadowDrawable the shadow, or null for none
+     */
     public void setDrawerShadow(Drawable shadowDrawable) {
+        final int oldStripHeight = getShadowStripHeight();
         mShadow = shadowDrawable;
+        releaseShadowStrip();
+        invalidateShadowStrips(Math.max(oldStripHeight, getShadowStripHeight()));
+    }
+
+    /**
+     * Set the color drawn over the content while a drawer is showing. Its alpha
+     * is scaled by how far the drawer is open; a fully transparent color turns
+     * the scrim off.
+     *
+     * @param color color to use, including the alpha of a fully open drawer
+     */
+    public void setScrimColor(@ColorInt int color) {
+        mContentScrimColor = color;
         invalidate();
     }
 
-    public void setDrawerListener(DrawerListener listener) {
-        mListener = listener;
+    /**
+     * Push the content along with a showing drawer instead of only covering it:
+     * down by the top drawer, up by the bottom one. The content is moved with
+     * its translationY alone, so a slide needs no measure or layout of it, and
+     * this layout takes over the content's translationY while pushing. Combine
+     * with a transparent {@link #setScrimColor(int) scrim} to skip drawing
+     * one. Equivalent to the {@code contentPushFactor} attribute.
+     *
+     * @param factor 0 to leave the content in place (the default), 1 to move it
+     *               with the drawer's edge, in between for a parallax
+     * @see #setContentPushScale(float)
+     */
+    public void setContentPushFactor(float factor) {
+        if (factor < 0 || factor > 1) {
+            throw new IllegalArgumentException("Push factor must be between 0 and 1, was "
+                    + factor);
+        }
+        mContentPushFactor = factor;
+        updateContentPush();
     }
 
-    public void closeDrawer() {
-        closeDrawerView(mDrawerView);
+    public float getContentPushFactor() {
+        return mContentPushFactor;
     }
 
-    public void openDrawerView() {
-        openDrawerView(mDrawerView);
+    /**
+     * Scale the content down, about its center, as a drawer opens, along with
+     * or instead of {@link #setContentPushFactor(float) pushing} it. Like the
+     * push it only changes the content's render properties. Equivalent to the
+     * {@code contentPushScale} attribute.
+     *
+     * @param scale scale of the content while a drawer is fully open, 1 for none
+     */
+    public void setContentPushScale(float scale) {
+        if (scale <= 0 || scale > 1) {
+            throw new IllegalArgumentException("Push scale must be above 0 and at most 1, was "
+                    + scale);
+        }
+        mContentPushScale = scale;
+        updateContentPush();
+    }
+
+    public float getContentPushScale() {
+        return mContentPushScale;
+    }
+
+    /**
+     * Set the elevation of the drawers. On API 21 and up the drawers then cast
+     * a platform shadow instead of drawing the {@link #setDrawerShadow(Drawable)
+     * shadow drawable}; a closed drawer has no elevation, so no shadow bleeds
+     * in from the edge. Below API 21 only the drawable is drawn.
+     *
+     * @param elevation elevation in pixels, or 0 to go back to the drawable
+     */
+    public void setDrawerElevation(float elevation) {
+        mDrawerElevation = Math.max(0, elevation);
+        if (SET_DRAWER_SHADOW_FROM_ELEVATION) {
+            // Set on the drawers even for 0, to take back an elevation set before.
+            if (mTopDrawerView != null) {
+                ViewCompat.setElevation(mTopDrawerView, getElevationFor(mTopDrawerView));
+            }
+            if (mBottomDrawerView != null) {
+                ViewCompat.setElevation(mBottomDrawerView, getElevationFor(mBottomDrawerView));
+            }
+        }
+        // The drawable strip may have been switched on or off.
+        invalidateShadowStrips(mShadow != null ? Math.max(0, mShadow.getIntrinsicHeight()) : 0);
+    }
+
+    public float getDrawerElevation() {
+        return mDrawerElevation;
+    }
+
+    private boolean usesElevationShadow() {
+        return SET_DRAWER_SHADOW_FROM_ELEVATION && mDrawerElevation > 0;
+    }
+
+    private float getElevationFor(View drawerView) {
+        return ((LayoutParams) drawerView.getLayoutParams()).onScreen > 0 ? mDrawerElevation : 0;
+    }
+
+    /**
+     * Raises the drawer once it starts showing and lowers it again once it is
+     * closed. Only touches the elevation when a drawer elevation is in use.
+     */
+    private void updateDrawerElevation(View drawerView) {
+        if (usesElevationShadow()) {
+            ViewCompat.setElevation(drawerView, getElevationFor(drawerView));
+        }
+    }
+
+    /**
+     * @return the shadow strip for a drawer of {@code width}, rasterizing it
+     * first if needed, or null if the shadow has no intrinsic height
+     */
+    private Bitmap getShadowStrip(int width) {
+        final Bitmap strip = mShadowStrip;
+        if (strip != null && strip.getWidth() == width) {
+            return strip;
+        }
+        releaseShadowStrip();
+        final int height = mShadow.getIntrinsicHeight();
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+        final Bitmap newStrip = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        mShadow.setBounds(0, 0, width, height);
+        mShadow.setAlpha(0xff);
+        mShadow.draw(new Canvas(newStrip));
+        mShadowStrip = newStrip;
+        return newStrip;
+    }
+
+    /**
+     * @return the height of the shadow strip drawn at a drawer's edge, 0 if none is
+     */
+    private int getShadowStripHeight() {
+        return mShadow != null && !usesElevationShadow() ? Math.max(0, mShadow.getIntrinsicHeight()) : 0;
+    }
+
+    private void invalidateShadowStrips(int stripHeight) {
+        if (stripHeight > 0) {
+            invalidateShadowStrip(mTopDrawerView, stripHeight);
+            invalidateShadowStrip(mBottomDrawerView, stripHeight);
+        }
+    }
+
+    private void invalidateShadowStrip(View drawerView, int stripHeight) {
+        if (drawerView == null || getDrawerViewOffset(drawerView) == 0) {
+            return;
+        }
+        if (isBottomDrawer(drawerView)) {
+            final int edge = getDrawerTop(drawerView);
+            invalidate(drawerView.getLeft(), edge - stripHeight, drawerView.getRight(), edge);
+        } else {
+            final int edge = getDrawerBottom(drawerView);
+            invalidate(drawerView.getLeft(), edge, drawerView.getRight(), edge + stripHeight);
+        }
+    }
+
+    private void releaseShadowStrip() {
+        if (mShadowStrip != null) {
+            mShadowStrip.recycle();
+            mShadowStrip = null;
+        }
+    }
+
+    /**
+     * Enable or disable putting the drawer, and the content view while it is
+     * scrimmed, on a hardware layer for as long as the drawer is dragged or
+     * settling. Each frame of the slide is then a layer composite instead of a
+     * redraw of the drawer hierarchy. Views that already have a layer type set
+     * are left alone, and the original layer type is restored once the drawer
+     * is idle again.
+     *
+     * <p>If the drawer keeps redrawing its own content during the motion, the
+     * layer would have to be re-rendered every frame, so the drawer falls back
+     * to drawing without a layer until the motion ends.</p>
+     *
+     * @param enabled true to promote views to hardware layers while moving
+     */
+    public void setDrawerLayerPromotionEnabled(boolean enabled) {
+        mLayerPromotionEnabled = enabled;
+        if (!enabled) {
+            restoreDrawerLayers();
+        }
+    }
+
+    public boolean isDrawerLayerPromotionEnabled() {
+        return mLayerPromotionEnabled;
+    }
+
+    /**
+     * Enable or disable moving the drawer with translationY instead of its layout
+     * position. When enabled the drawer is laid out once at its open position and
+     * every drag or settle step only changes its translationY, so a slide never
+     * re-lays out the drawer hierarchy, even when something else in the tree
+     * requests a layout mid-slide.
+     *
+     * @param enabled true to slide the drawer with translationY
+     */
+    public void setDrawerTranslationEnabled(boolean enabled) {
+        if (mTranslationPositioning == enabled) {
+            return;
+        }
+        mDragHelper.abort();
+        mBottomDragHelper.abort();
+        finishSettle();
+        mTranslationPositioning = enabled;
+        requestLayout();
+    }
+
+    public boolean isDrawerTranslationEnabled() {
+        return mTranslationPositioning;
+    }
+
+    /**
+     * Set the physics used to settle the drawer after a release and for
+     * {@link #openDrawerView()} and {@link #closeDrawer()}. A settle already in
+     * progress continues with the new engine from its current position and
+     * velocity.
+     *
+     * @param engine the engine to use, or null for the default {@link SpringSettleEngine}
+     */
+    public void setSettleEngine(SettleEngine engine) {
+        mSettleEngine = engine != null ? engine : new SpringSettleEngine();
+    }
+
+    public SettleEngine getSettleEngine() {
+        return mSettleEngine;
+    }
+
+    /**
+     * Choose how drawers move to a new position when opened, closed or let go
+     * of: animated, shortened, instant, or {@link #MOTION_AUTO} to decide from
+     * the animator duration scale and {@link ActivityManager#isLowRamDevice()}.
+     * An instant transition still tells listeners the final slide offset
+     * before {@link DrawerListener#onDrawerOpened(View)} or
+     * {@link DrawerListener#onDrawerClosed(View)}, without any state changes.
+     *
+     * @param policy one of {@link #MOTION_AUTO}, {@link #MOTION_ANIMATED},
+     *               {@link #MOTION_SHORTENED} or {@link #MOTION_INSTANT}
+     */
+    public void setMotionPolicy(@MotionPolicy int policy) {
+        if (policy < MOTION_AUTO || policy > MOTION_INSTANT) {
+            throw new IllegalArgumentException("Unknown motion policy " + policy);
+        }
+        mMotionPolicy = policy;
+        mResolvedMotionPolicy = MOTION_AUTO;
+    }
+
+    @MotionPolicy
+    public int getMotionPolicy() {
+        return mMotionPolicy;
+    }
+
+    /**
+     * @return the policy in effect, never {@link #MOTION_AUTO}
+     */
+    int getResolvedMotionPolicy() {
+        if (mResolvedMotionPolicy == MOTION_AUTO) {
+            mResolvedMotionPolicy = mMotionPolicy != MOTION_AUTO
+                    ? mMotionPolicy : resolveAutoMotionPolicy();
+        }
+        return mResolvedMotionPolicy;
+    }
+
+    private int resolveAutoMotionPolicy() {
+        if (getAnimatorDurationScale() == 0) {
+            return MOTION_INSTANT;
+        }
+        final ActivityManager am =
+                (ActivityManager) getContext().getSystemService(Context.ACTIVITY_SERVICE);
+        if (am != null && ActivityManagerCompat.isLowRamDevice(am)) {
+            return MOTION_SHORTENED;
+        }
+        return MOTION_ANIMATED;
+    }
+
+    private float getAnimatorDurationScale() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            return Settings.Global.getFloat(getContext().getContentResolver(),
+                    Settings.Global.ANIMATOR_DURATION_SCALE, 1.f);
+        }
+        return 1.f;
+    }
+
+    /**
+     * Add a resting position with {@code peekHeight} pixels of the drawer
+     * showing, between closed and open. Equivalent to the
+     * {@code drawerPeekHeight} attribute.
+     *
+     * @param peekHeight visible height of the drawer at the peek anchor, or 0 for none
+     * @see #setDrawerAnchorFractions(float...)
+     */
+    public void setDrawerPeekHeight(int peekHeight) {
+        mPeekHeight = Math.max(0, peekHeight);
+        updateSnapTable();
+    }
+
+    public int getDrawerPeekHeight() {
+        return mPeekHeight;
+    }
+
+    /**
+     * Add resting positions at fractions of the drawer height, between closed
+     * and open, for example 0.5f for a half open drawer. A released drawer
+     * settles at the anchor closest to where its velocity would carry it, and
+     * always at least one anchor further in the direction of a fling. Closed
+     * and fully open are always anchors.
+     *
+     * @param fractions fractions of the drawer showing, each greater than 0 and
+     *                  less than 1; none to only keep closed, peek and open
+     * @see AnchorDrawerListener
+     */
+    public void setDrawerAnchorFractions(float... fractions) {
+        for (float fraction : fractions) {
+            if (!(fraction > 0 && fraction < 1)) {
+                throw new IllegalArgumentException("Anchor fractions must be between 0 and 1, "
+                        + "exclusive, but got " + fraction);
+            }
+        }
+        mAnchorFractions = fractions.length == 0 ? EMPTY_FRACTIONS : fractions.clone();
+        updateSnapTable();
+    }
+
+    public float[] getDrawerAnchorFractions() {
+        return mAnchorFractions.clone();
+    }
+
+    private void updateSnapTable() {
+        updateSnapTable(mTopDrawerView);
+        updateSnapTable(mBottomDrawerView);
+    }
+
+    private void updateSnapTable(View drawerView) {
+        if (drawerView != null && drawerView.getHeight() > 0) {
+            buildSnapTable((LayoutParams) drawerView.getLayoutParams(), drawerView.getHeight());
+        }
+    }
+
+    /**
+     * Turns the anchors into the sorted, distinct visible heights a drawer of
+     * the given height can rest at. Only allocates when the anchors outgrow
+     * the table.
+     */
+    private void buildSnapTable(LayoutParams lp, int drawerHeight) {
+        final int maxCount = 3 + mAnchorFractions.length;
+        if (lp.snapShowing == null || lp.snapShowing.length < maxCount) {
+            lp.snapShowing = new int[maxCount];
+        }
+        final int[] showing = lp.snapShowing;
+        int count = 0;
+        showing[count++] = 0;
+        showing[count++] = drawerHeight;
+        if (mPeekHeight > 0 && mPeekHeight < drawerHeight) {
+            showing[count++] = mPeekHeight;
+        }
+        final float[] fractions = mAnchorFractions;
+        for (int i = 0; i < fractions.length; i++) {
+            showing[count++] = Math.round(drawerHeight * fractions[i]);
+        }
+        Arrays.sort(showing, 0, count);
+
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || showing[i] != showing[unique - 1]) {
+                showing[unique++] = showing[i];
+            }
+        }
+        lp.snapCount = unique;
+    }
+
+    /**
+     * Picks the visible height to settle at for a drawer released with
+     * {@code showing} pixels visible, moving at {@code velocity} pixels per
+     * second in its opening direction.
+     */
+    static int findSnapShowing(LayoutParams lp, int showing, float velocity) {
+        final int[] table = lp.snapShowing;
+        final int count = lp.snapCount;
+        int index = nearestSnapIndex(lp, showing + velocity * FLING_PROJECTION_SECONDS);
+
+        // A fling always moves the drawer on, even if it was too slow to
+        // carry it closer to the next anchor.
+        if (velocity > 0) {
+            while (table[index] <= showing && index < count - 1) {
+                index++;
+            }
+        } else if (velocity < 0) {
+            while (table[index] >= showing && index > 0) {
+                index--;
+            }
+        }
+        return table[index];
+    }
+
+    /**
+     * @return the index of the anchor closest to {@code showing}; the more
+     * closed one on a tie
+     */
+    private static int nearestSnapIndex(LayoutParams lp, float showing) {
+        final int[] table = lp.snapShowing;
+        int low = 0;
+        int high = lp.snapCount - 1;
+        // Find the first anchor at or above showing.
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (table[mid] < showing) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low > 0 && showing - table[low - 1] <= table[low] - showing) {
+            return low - 1;
+        }
+        return low;
+    }
+
+    private static int indexOfSnapShowing(LayoutParams lp, int showing) {
+        if (lp.snapShowing == null) {
+            return -1;
+        }
+        final int index = Arrays.binarySearch(lp.snapShowing, 0, lp.snapCount, showing);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Enable or disable collecting {@link DrawerMetrics} for drawer drags and
+     * settles. Frame timing relies on Choreographer, so this has no effect below
+     * Jelly Bean.
+     *
+     * @param enabled true to record frame metrics while the drawer moves
+     */
+    public void setDrawerMetricsEnabled(boolean enabled) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            return;
+        }
+        if (enabled && mMetrics == null) {
+            mMetrics = new DrawerMetrics(getDisplayRefreshRate());
+        } else if (!enabled && mMetrics != null) {
+            mMetrics.stop();
+            mMetrics = null;
+        }
+    }
+
+    /**
+     * @return the metrics recorded since they were enabled, or null if
+     * {@link #setDrawerMetricsEnabled(boolean)} is off
+     */
+    public DrawerMetrics getDrawerMetrics() {
+        return mMetrics;
+    }
+
+    private float getDisplayRefreshRate() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            final Display display = getDisplay();
+            if (display != null) {
+                return display.getRefreshRate();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Inflate the default drawer's contents lazily from {@code layoutResId}. The
+     * drawer child is then only a placeholder {@link ViewGroup} that the layout is
+     * added to. The default drawer is the top one, or the bottom one when the
+     * layout has no top drawer. Inflation runs on a background thread, starting
+     * when the main thread first goes idle after attach, or when a touch lands in
+     * the top edge zone, whichever comes first. If the drawer has to open before
+     * that finished, {@link #openDrawerView()} and edge drags wait for it or
+     * inflate on the main thread.
+     *
+     * <p>The background thread inflates without the Activity's
+     * {@link android.view.LayoutInflater.Factory}, so AppCompat does not
+     * replace framework widgets with its own there; name the AppCompat classes
+     * in the layout where they are needed.</p>
+     *
+     * <p>Equivalent to the {@code lazyDrawerLayout} attribute, and like it only
+     * takes effect once: calls made after a lazy layout was set up are ignored.</p>
+     *
+     * @param layoutResId the drawer's layout
+     */
+    public void setLazyDrawerLayout(@LayoutRes int layoutResId) {
+        if (mLazyInflater != null) {
+            return;
+        }
+        mLazyDrawerLayoutRes = layoutResId;
+        if (mDrawerView != null) {
+            createLazyInflater();
+        }
+    }
+
+    /**
+     * @return false while the lazy drawer layout is still to be inflated
+     * @see #setLazyDrawerLayout(int)
+     */
+    public boolean isDrawerInflated() {
+        return mLazyInflater == null || mLazyInflater.isDone();
+    }
+
+    private void createLazyInflater() {
+        if (mLazyDrawerLayoutRes == 0) {
+            return;
+        }
+        if (!(mDrawerView instanceof ViewGroup)) {
+            throw new IllegalArgumentException("The drawer placeholder must be a ViewGroup "
+                    + "when lazyDrawerLayout is set");
+        }
+        final ViewGroup placeholder = (ViewGroup) mDrawerView;
+        mLazyInflater = new LazyDrawerInflater(placeholder, mLazyDrawerLayoutRes,
+                new LazyDrawerInflater.Callback() {
+                    @Override
+                    public void onDrawerInflated(View drawerContent) {
+                        placeholder.addView(drawerContent);
+                    }
+                });
+        if (ViewCompat.isAttachedToWindow(this)) {
+            mLazyInflater.scheduleOnIdle();
+        }
+    }
+
+    /**
+     * Starts inflating the lazy drawer in the background if it has not started yet.
+     */
+    void prepareLazyDrawer() {
+        if (mLazyInflater != null) {
+            mLazyInflater.startAsync();
+        }
     }
 
+    /**
+     * Get the default drawer ready to move, ahead of an open the app is about to
+     * start, so the first frame of the motion costs no more than the ones after
+     * it. A touch down in a drawer's edge zone does the same for that drawer.
+     *
+     * <p>This starts inflating a {@link #setLazyDrawerLayout(int) lazy drawer
+     * layout} in the background and, with {@link
+     * #setDrawerLayerPromotionEnabled(boolean) layer promotion} on, puts the
+     * drawer on its hardware layer and renders it there right away. The content
+     * is left alone until the drawer starts moving. A drawer that does not start
+     * moving soon after gives its layer back.</p>
+     */
+    public void prepareToOpen() {
+        prepareDrawer(mDrawerView);
+    }
+
+    /**
+     * Like {@link #prepareToOpen()}, for the drawer along the given edge.
+     *
+     * @param gravity {@link Gravity#TOP} or {@link Gravity#BOTTOM}
+     */
+    public void prepareToOpen(int gravity) {
+        final View drawerView = findDrawerWithGravity(gravity);
+        if (drawerView == null) {
+            throw new IllegalArgumentException("No drawer view found with gravity "
+                    + gravityToString(gravity));
+        }
+        prepareDrawer(drawerView);
+    }
+
+    private void prepareDrawer(View drawerView) {
+        if (drawerView == null) {
+            return;
+        }
+        if (drawerView == mDrawerView) {
+            prepareLazyDrawer();
+        }
+        // A moving drawer is already promoted, and an open one has been drawn.
+        if (mDrawerState != STATE_IDLE || getDrawerViewOffset(drawerView) == 1.f) {
+            return;
+        }
+        // Only the drawer: this runs on the input path, and the full-screen
+        // content is promoted once the motion actually starts.
+        if (!promoteDrawerLayers(drawerView, false)) {
+            return;
+        }
+        // A drawer that sits fully off screen has never been drawn, so its
+        // display list is recorded here along with the layer instead of on
+        // the first frame it shows.
+        if (ViewCompat.isAttachedToWindow(this)) {
+            drawerView.buildLayer();
+        }
+        postDelayed(mReleasePreparedLayersRunnable, PREPARED_LAYER_TIMEOUT_MS);
+    }
+
+    /**
+     * Makes sure the lazy drawer contents are attached before the drawer moves.
+     */
+    void ensureDrawerInflated(View drawerView) {
+        if (mLazyInflater != null && drawerView == mDrawerView) {
+            mLazyInflater.finish();
+        }
+    }
+
+    /**
+     * Set a listener to be notified of drawer events. This replaces the listener
+     * previously set with this method; listeners added with
+     * {@link #addDrawerListener(DrawerListener)} are kept.
+     *
+     * @param listener Listener to notify when drawer events occur
+     */
+    public void setDrawerListener(DrawerListener listener) {
+        if (mListener != null) {
+            removeDrawerListener(mListener);
+        }
+        if (listener != null) {
+            addDrawerListener(listener);
+        }
+        mListener = listener;
+    }
+
+    /**
+     * Adds the specified listener to the list of listeners that will be notified
+     * of drawer events. Adding a listener that is already registered does nothing.
+     *
+     * @param listener Listener to notify when drawer events occur
+     */
+    public void addDrawerListener(DrawerListener listener) {
+        if (listener == null || indexOfListener(listener) >= 0) {
+            return;
+        }
+        final DrawerListener[] oldListeners = mListeners;
+        final DrawerListener[] listeners = new DrawerListener[oldListeners.length + 1];
+        System.arraycopy(oldListeners, 0, listeners, 0, oldListeners.length);
+        listeners[oldListeners.length] = listener;
+        mListeners = listeners;
+    }
+
+    /**
+     * Removes the specified listener from the list of listeners that will be
+     * notified of drawer events.
+     *
+     * @param listener Listener to remove from being notified of drawer events
+     */
+    public void removeDrawerListener(DrawerListener listener) {
+        final int index = indexOfListener(listener);
+        if (index < 0) {
+            return;
+        }
+        final DrawerListener[] oldListeners = mListeners;
+        if (oldListeners.length == 1) {
+            mListeners = EMPTY_LISTENERS;
+        } else {
+            final DrawerListener[] listeners = new DrawerListener[oldListeners.length - 1];
+            System.arraycopy(oldListeners, 0, listeners, 0, index);
+            System.arraycopy(oldListeners, index + 1, listeners, index,
+                    oldListeners.length - index - 1);
+            mListeners = listeners;
+        }
+        if (listener == mListener) {
+            mListener = null;
+        }
+    }
+
+    /**
+     * Drive a property of {@code view} from the default drawer's slide offset,
+     * instead of setting it from {@link DrawerListener#onDrawerSlide(View, float)}.
+     * The property goes from {@code from} when the drawer is closed to {@code to}
+     * when it is open, and is set right away for the current offset. Binding the
+     * same property of the same view again replaces the binding.
+     *
+     * <p>Bindings are applied together in one loop whenever the offset changes,
+     * before listeners are told, without boxing or allocating.</p>
+     *
+     * @param view         the view to change
+     * @param property     one of the {@code PROPERTY_} constants
+     * @param from         value when the drawer is closed
+     * @param to           value when the drawer is open
+     * @param interpolator maps the slide offset before interpolating, or null for linear
+     */
+    public void bindProperty(View view, @BindableProperty int property, float from, float to,
+            TimeInterpolator interpolator) {
+        bindProperty(mDrawerView, view, property, from, to, interpolator);
+    }
+
+    /**
+     * Like {@link #bindProperty(View, int, float, float, TimeInterpolator)}, for the
+     * drawer along the given edge.
+     *
+     * @param gravity {@link Gravity#TOP} or {@link Gravity#BOTTOM}
+     */
+    public void bindProperty(int gravity, View view, @BindableProperty int property, float from,
+            float to, TimeInterpolator interpolator) {
+        final View drawerView = findDrawerWithGravity(gravity);
+        if (drawerView == null) {
+            throw new IllegalArgumentException("No drawer view found with gravity "
+                    + gravityToString(gravity));
+        }
+        bindProperty(drawerView, view, property, from, to, interpolator);
+    }
+
+    private void bindProperty(View drawerView, View view, int property, float from, float to,
+            TimeInterpolator interpolator) {
+        if (property < PROPERTY_ALPHA || property > PROPERTY_ROTATION_Y) {
+            throw new IllegalArgumentException("Unknown property " + property);
+        }
+        final LayoutParams lp = (LayoutParams) drawerView.getLayoutParams();
+        if (lp.slideBindings == null) {
+            lp.slideBindings = new SlideBindings();
+        }
+        // A property is driven by one drawer at a time.
+        unbindProperty(view, property);
+        lp.slideBindings.put(view, property, from, to, interpolator);
+        lp.slideBindings.apply(lp.onScreen);
+    }
+
+    /**
+     * Stop driving a property bound with
+     * {@link #bindProperty(View, int, float, float, TimeInterpolator)}. The property
+     * keeps its current value.
+     */
+    public void unbindProperty(View view, @BindableProperty int property) {
+        unbindProperty(mTopDrawerView, view, property);
+        unbindProperty(mBottomDrawerView, view, property);
+    }
+
+    private static void unbindProperty(View drawerView, View view, int property) {
+        if (drawerView == null) {
+            return;
+        }
+        final LayoutParams lp = (LayoutParams) drawerView.getLayoutParams();
+        if (lp.slideBindings != null && lp.slideBindings.remove(view, property)
+                && lp.slideBindings.isEmpty()) {
+            lp.slideBindings = null;
+        }
+    }
+
+    /**
+     * Enable or disable coalescing {@link DrawerListener#onDrawerSlide(View, float)}
+     * to at most one call per frame. A fast touch digitizer can report several
+     * drag steps per frame, and by default every step reaches the listeners; with
+     * coalescing only the latest offset is delivered, at the start of the next
+     * frame. A final offset of 0 or 1 is always delivered before
+     * {@link DrawerListener#onDrawerClosed(View)} or
+     * {@link DrawerListener#onDrawerOpened(View)}.
+     *
+     * @param enabled true to deliver at most one slide update per frame
+     * @see #setSlideDispatchThreshold(float)
+     */
+    public void setSlideDispatchCoalescingEnabled(boolean enabled) {
+        if (mCoalesceSlideDispatch == enabled) {
+            return;
+        }
+        mCoalesceSlideDispatch = enabled;
+        if (!enabled) {
+            removeCallbacks(mSlideDispatchRunnable);
+            flushPendingSlide();
+        }
+    }
+
+    public boolean isSlideDispatchCoalescingEnabled() {
+        return mCoalesceSlideDispatch;
+    }
+
+    /**
+     * Run {@code action} on the main thread once no drawer is moving, instead of
+     * while a drag or settle needs the frame. Use it for work such as refreshing
+     * the drawer's contents from {@link DrawerListener#onDrawerStateChanged(int)}.
+     *
+     * <p>Runnables run in the order they were posted, a few milliseconds' worth
+     * per frame. If a drawer starts moving, the ones that haven't run yet wait
+     * until it is idle again. They always run asynchronously, even when posted
+     * while idle, and not at all while this layout is detached.</p>
+     *
+     * @param action the work to run
+     * @see #removeIdleCallbacks(Runnable)
+     */
+    public void postWhenIdle(Runnable action) {
+        if (action == null) {
+            throw new IllegalArgumentException("action must not be null");
+        }
+        mIdleWork.post(action);
+    }
+
+    /**
+     * Remove pending runs of {@code action} posted with {@link #postWhenIdle(Runnable)}.
+     */
+    public void removeIdleCallbacks(Runnable action) {
+        mIdleWork.remove(action);
+    }
+
+    /**
+     * Set the smallest change in slide offset that is delivered to listeners when
+     * slide dispatch is coalesced. Smaller changes are held back until they add
+     * up to the threshold; 0 and 1 are always delivered.
+     *
+     * @param minOffsetDelta minimum offset change between two slide callbacks, 0 to 1
+     * @see #setSlideDispatchCoalescingEnabled(boolean)
+     */
+    public void setSlideDispatchThreshold(float minOffsetDelta) {
+        mSlideDispatchThreshold = Math.max(0, Math.min(minOffsetDelta, 1));
+    }
+
+    public float getSlideDispatchThreshold() {
+        return mSlideDispatchThreshold;
+    }
+
+    private int indexOfListener(DrawerListener listener) {
+        final DrawerListener[] listeners = mListeners;
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public void closeDrawer() {
+        closeDrawerView(mDrawerView);
+    }
+
+    public void openDrawerView() {
+        openDrawerView(mDrawerView);
+    }
+
+    /**
+     * Open the drawer along the given edge.
+     *
+     * @param gravity {@link Gravity#TOP} or {@link Gravity#BOTTOM}
+     */
+    public void openDrawer(int gravity) {
+        final View drawerView = findDrawerWithGravity(gravity);
+        if (drawerView == null) {
+            throw new IllegalArgumentException("No drawer view found with gravity "
+                    + gravityToString(gravity));
+        }
+        openDrawerView(drawerView);
+    }
+
+    /**
+     * Close the drawer along the given edge.
+     *
+     * @param gravity {@link Gravity#TOP} or {@link Gravity#BOTTOM}
+     */
+    public void closeDrawer(int gravity) {
+        final View drawerView = findDrawerWithGravity(gravity);
+        if (drawerView == null) {
+            throw new IllegalArgumentException("No drawer view found with gravity "
+                    + gravityToString(gravity));
+        }
+        closeDrawerView(drawerView);
+    }
+
+    /**
+     * Close all open drawers.
+     */
+    public void closeDrawers() {
+        if (mTopDrawerView != null) {
+            closeDrawerView(mTopDrawerView);
+        }
+        if (mBottomDrawerView != null) {
+            closeDrawerView(mBottomDrawerView);
+        }
+    }
+
+    /**
+     * @param gravity {@link Gravity#TOP} or {@link Gravity#BOTTOM}
+     * @return the drawer along that edge, or null if there is none
+     */
+    public View findDrawerWithGravity(int gravity) {
+        switch (gravity & Gravity.VERTICAL_GRAVITY_MASK) {
+            case Gravity.TOP:
+                return mTopDrawerView;
+            case Gravity.BOTTOM:
+                return mBottomDrawerView;
+            default:
+                return null;
+        }
+    }
+
+    static String gravityToString(int gravity) {
+        switch (gravity & Gravity.VERTICAL_GRAVITY_MASK) {
+            case Gravity.TOP:
+                return "TOP";
+            case Gravity.BOTTOM:
+                return "BOTTOM";
+            default:
+                return Integer.toHexString(gravity);
+        }
+    }
+
+    /**
+     * Set a listener that is told when the drawer starts and stops covering the
+     * whole content view. Use it to pause expensive content such as video, maps
+     * or live lists while it cannot be seen. It is called whether or not the
+     * drawer is opaque; only an opaque drawer also makes the content view
+     * {@link #INVISIBLE}. The drawer has to span the part of the content view
+     * that is on screen, so a {@code match_parent} drawer, which stops short of
+     * the far edge, never covers it.
+     *
+     * @param listener the listener, or null to remove it
+     */
+    public void setContentOcclusionListener(ContentOcclusionListener listener) {
+        mOcclusionListener = listener;
+    }
+
+    /**
+     * @return true if the drawer currently covers the whole content view
+     */
+    public boolean isContentCovered() {
+        return mContentCovered;
+    }
+
+    public boolean isDrawerOpen() {
+        return ((LayoutParams) mDrawerView.getLayoutParams()).knownOpen;
+    }
+
+    /**
+     * @param gravity {@link Gravity#TOP} or {@link Gravity#BOTTOM}
+     * @return true if the drawer along that edge is open
+     */
+    public boolean isDrawerOpen(int gravity) {
+        final View drawerView = findDrawerWithGravity(gravity);
+        return drawerView != null && ((LayoutParams) drawerView.getLayoutParams()).knownOpen;
+    }
+
+    /**
+     * @return the current drawer motion state, one of {@link #STATE_IDLE},
+     * {@link #STATE_DRAGGING} or {@link #STATE_SETTLING}
+     */
+    @State
+    public int getDrawerState() {
+        return mDrawerState;
+    }
+
+
+
+
+    @Override
+    public void computeScroll() {
+        final View topDrawer = mTopDrawerView;
+        if (topDrawer != null) {
+            final LayoutParams lp = (LayoutParams) topDrawer.getLayoutParams();
+            if (lp.settling && continueSettle(topDrawer, lp)) {
+                postInvalidateSettle(topDrawer);
+            }
+        }
+        final View bottomDrawer = mBottomDrawerView;
+        if (bottomDrawer != null) {
+            final LayoutParams lp = (LayoutParams) bottomDrawer.getLayoutParams();
+            if (lp.settling && continueSettle(bottomDrawer, lp)) {
+                postInvalidateSettle(bottomDrawer);
+            }
+        }
+    }
+
+    /**
+     * Updates the scrim opacity from how far the drawers are open. The scrim is
+     * drawn by this layout over the content, so a change only re-records this
+     * layout's own few drawing operations; the content view itself is left
+     * valid and its display list is reused.
+     *
+     * @return true if the opacity changed
+     */
+    private boolean updateContentScrim() {
+        float scrimOpacity = 0;
+        if (mTopDrawerView != null) {
+            scrimOpacity = getDrawerViewOffset(mTopDrawerView);
+        }
+        if (mBottomDrawerView != null) {
+            scrimOpacity = Math.max(scrimOpacity, getDrawerViewOffset(mBottomDrawerView));
+        }
+        if (scrimOpacity == mContentScrimOpacity) {
+            return false;
+        }
+        mContentScrimOpacity = scrimOpacity;
+        return true;
+    }
+
+    /**
+     * Moves and scales the content for the drawers' offsets, in push mode.
+     * When push mode is turned off, puts the content back once.
+     */
+    private void updateContentPush() {
+        final View contentView = mContentView;
+        if (contentView == null) {
+            return;
+        }
+        if (mContentPushFactor == 0 && mContentPushScale == 1) {
+            if (mContentPushed) {
+                mContentPushed = false;
+                contentView.setTranslationY(0);
+                contentView.setScaleX(1);
+                contentView.setScaleY(1);
+            }
+            return;
+        }
+        mContentPushed = true;
+
+        float push = 0;
+        float offset = 0;
+        if (mTopDrawerView != null) {
+            final float topOffset = getDrawerViewOffset(mTopDrawerView);
+            push += topOffset * mTopDrawerView.getHeight();
+            offset = topOffset;
+        }
+        if (mBottomDrawerView != null) {
+            final float bottomOffset = getDrawerViewOffset(mBottomDrawerView);
+            push -= bottomOffset * mBottomDrawerView.getHeight();
+            offset = Math.max(offset, bottomOffset);
+        }
+        // Whole pixels, so text in the content doesn't blur between them.
+        contentView.setTranslationY(Math.round(push * mContentPushFactor));
+        final float scale = 1 - (1 - mContentPushScale) * offset;
+        contentView.setScaleX(scale);
+        contentView.setScaleY(scale);
+    }
+
+    private boolean isScrimVisible() {
+        return (mContentScrimColor >>> 24) != 0;
+    }
+
+    /**
+     * Top of the content that is not hidden behind an opaque band of the top
+     * drawer running along the top edge.
+     */
+    int getContentClipTop() {
+        final Rect opaque = mOpaqueRect;
+        getDrawerOpaqueRect(mTopDrawerView, opaque);
+        return getContentClipTop(opaque);
+    }
+
+    /**
+     * @param topOpaque the top drawer's opaque rect, empty if it has none
+     */
+    private int getContentClipTop(Rect topOpaque) {
+        return !topOpaque.isEmpty() && isEdgeBand(mTopDrawerView, topOpaque)
+                ? Math.max(0, Math.min(topOpaque.bottom, getHeight())) : 0;
+    }
+
+    /**
+     * Bottom of the content that is not hidden behind an opaque band of the
+     * bottom drawer running along the bottom edge.
+     */
+    int getContentClipBottom() {
+        final Rect opaque = mOpaqueRect;
+        getDrawerOpaqueRect(mBottomDrawerView, opaque);
+        return getContentClipBottom(opaque);
+    }
+
+    /**
+     * @param bottomOpaque the bottom drawer's opaque rect, empty if it has none
+     */
+    private int getContentClipBottom(Rect bottomOpaque) {
+        final int height = getHeight();
+        return !bottomOpaque.isEmpty() && isEdgeBand(mBottomDrawerView, bottomOpaque)
+                ? Math.min(height, Math.max(bottomOpaque.top, 0)) : height;
+    }
+
+    /**
+     * @return true if {@code opaque} spans the width of this layout from the
+     * edge the drawer comes in from, so it can narrow a plain rect clip
+     */
+    private boolean isEdgeBand(View drawerView, Rect opaque) {
+        if (opaque.left > 0 || opaque.right < getWidth()) {
+            return false;
+        }
+        return isBottomDrawer(drawerView) ? opaque.bottom >= getHeight() : opaque.top <= 0;
+    }
+
+    /**
+     * Sets {@code outRect} to the part of the drawer, in this layout's
+     * coordinates, that is known to hide what is behind it: the whole drawer if
+     * its background is opaque, otherwise the largest untransformed direct child
+     * with an opaque background. Only as exact as
+     * {@link Drawable#getOpacity()}, so a drawer that draws its own opaque
+     * content without such a background is not counted.
+     *
+     * @return false if no part of the drawer is known to be opaque
+     */
+    boolean getDrawerOpaqueRect(View drawerView, Rect outRect) {
+        outRect.setEmpty();
+        if (drawerView == null || drawerView.getVisibility() != VISIBLE
+                || drawerView.getAlpha() < 1.f) {
+            return false;
+        }
+        final int width = drawerView.getWidth();
+        final int height = drawerView.getHeight();
+        if (hasOpaqueBackground(drawerView)) {
+            outRect.set(0, 0, width, height);
+        } else if (drawerView instanceof ViewGroup) {
+            final ViewGroup group = (ViewGroup) drawerView;
+            final int scrollX = group.getScrollX();
+            final int scrollY = group.getScrollY();
+            int largestArea = 0;
+            for (int i = 0, count = group.getChildCount(); i < count; i++) {
+                final View child = group.getChildAt(i);
+                if (child.getVisibility() != VISIBLE || child.getAlpha() < 1.f
+                        || !child.getMatrix().isIdentity() || !hasOpaqueBackground(child)) {
+                    continue;
+                }
+                final int area = child.getWidth() * child.getHeight();
+                if (area > largestArea) {
+                    largestArea = area;
+                    outRect.set(child.getLeft() - scrollX, child.getTop() - scrollY,
+                            child.getRight() - scrollX, child.getBottom() - scrollY);
+                }
+            }
+            // Children are clipped to the drawer.
+            if (!outRect.intersect(0, 0, width, height)) {
+                outRect.setEmpty();
+            }
+        }
+        if (outRect.isEmpty()) {
+            return false;
+        }
+        outRect.offset(drawerView.getLeft(), getDrawerTop(drawerView));
+        return true;
+    }
+
+    /**
+     * Cuts the opaque part of a drawer that is not an edge band out of the
+     * content clip. Only done where such a clip is cheap: in software, or with
+     * hardware acceleration from API 18, which first supports non-rect clips.
+     *
+     * @param opaque the drawer's opaque rect, empty if it has none
+     */
+    private void clipOutDrawerInterior(Canvas canvas, View drawerView, Rect opaque) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR2
+                && canvas.isHardwareAccelerated()) {
+            return;
+        }
+        if (!opaque.isEmpty() && !isEdgeBand(drawerView, opaque)) {
+            canvas.clipRect(opaque, Region.Op.DIFFERENCE);
+        }
+    }
+
+    /**
+     * Sets {@code outRect} to the part of a drawer that is on screen, in the
+     * drawer's own coordinates. Only this slice is drawn, so a large drawer,
+     * such as one holding a list, can use it as a culling hint to skip work for
+     * children outside of it while it slides.
+     *
+     * @param drawerView a drawer of this layout
+     * @param outRect    set to the visible slice, or emptied
+     * @return false if none of the drawer is on screen
+     */
+    public boolean getDrawerVisibleRect(View drawerView, Rect outRect) {
+        if (!isDrawerView(drawerView)) {
+            throw new IllegalArgumentException("View " + drawerView + " is not a drawer");
+        }
+        final int height = drawerView.getHeight();
+        final int showing = Math.min(height, getDrawerShowing(drawerView, getDrawerTop(drawerView)));
+        if (showing <= 0) {
+            outRect.setEmpty();
+            return false;
+        }
+        if (isBottomDrawer(drawerView)) {
+            outRect.set(0, 0, drawerView.getWidth(), showing);
+        } else {
+            outRect.set(0, height - showing, drawerView.getWidth(), height);
+        }
+        return true;
+    }
+
+    /**
+     * Sets {@link #mInvalidRect} to what this layout draws differently once a
+     * drawer goes from {@code fromShowing} to {@code toShowing} visible pixels:
+     * the band of content between the two edges, the shadow strip beyond them
+     * and, if the scrim changes, the scrimmed content. The drawer itself is
+     * invalidated by the view system when it is offset or translated.
+     */
+    private Rect setDrawerBandDirty(View drawerView, int fromShowing, int toShowing,
+            boolean scrimChanged) {
+        final int lo = Math.min(fromShowing, toShowing);
+        final int hi = Math.max(fromShowing, toShowing);
+        final int shadow = getShadowStripHeight();
+        final int height = getHeight();
+        int top;
+        int bottom;
+        if (isBottomDrawer(drawerView)) {
+            top = height - hi - shadow;
+            bottom = height - lo;
+        } else {
+            top = lo;
+            bottom = hi + shadow;
+        }
+        if (scrimChanged && isScrimVisible()) {
+            top = Math.min(top, getContentClipTop());
+            bottom = Math.max(bottom, getContentClipBottom());
+        }
+        mInvalidRect.set(0, Math.max(0, top), getWidth(), Math.min(height, bottom));
+        return mInvalidRect;
+    }
+
+    /**
+     * Asks for the next settle frame. The region covers the rest of the way in
+     * the direction of the target, up to the end of travel, since a spring may
+     * pass its target before coming back.
+     */
+    private void postInvalidateSettle(View drawerView) {
+        final LayoutParams lp = (LayoutParams) drawerView.getLayoutParams();
+        final int showing = getDrawerShowing(drawerView, getDrawerTop(drawerView));
+        final int targetShowing = getDrawerShowing(drawerView, (int) lp.settleMotion.target);
+        final int endShowing = targetShowing > showing ? drawerView.getHeight()
+                : targetShowing < showing ? 0 : showing;
+        final Rect dirty = setDrawerBandDirty(drawerView, showing, endShowing, endShowing != showing);
+        if (dirty.isEmpty()) {
+            // Within half a pixel of its target the drawer already rounds onto
+            // it, but the spring still needs frames to come to rest. An empty
+            // rect would be ignored and leave the settle stuck, so one row at
+            // the drawer's edge is kept dirty instead.
+            final int width = getWidth();
+            final int height = getHeight();
+            if (width <= 0 || height <= 0) {
+                ViewCompat.postInvalidateOnAnimation(this);
+                return;
+            }
+            final int edge = isBottomDrawer(drawerView) ? height - showing : showing;
+            final int top = Math.max(0, Math.min(edge, height - 1));
+            dirty.set(0, top, width, top + 1);
+        }
+        ViewCompat.postInvalidateOnAnimation(this, dirty.left, dirty.top, dirty.right, dirty.bottom);
+    }
+
+    private ViewDragHelper createDragHelper(ViewDragCallback callback, int edge, float minVel) {
+        final ViewDragHelper dragger = ViewDragHelper.create(this, 1.0f, callback);
+        dragger.setEdgeTrackingEnabled(edge);
+        dragger.setMinVelocity(minVel);
+        callback.mDragger = dragger;
+        return dragger;
+    }
+
+    /**
+     * Drag callback of one edge. Only the layout creates these, together with
+     * the {@link ViewDragHelper} they drive; see {@link #mTopCallback} and
+     * {@link #mBottomCallback}.
+     */
+    public class ViewDragCallback extends ViewDragHelper.Callback {
+        private final int mGravity;
+        private ViewDragHelper mDragger;
+
+        private ViewDragCallback(int gravity) {
+            mGravity = gravity;
+        }
+
+        @Override
+        public boolean tryCaptureView(View child, int pointerId) {
+            // Only this edge's drawer is draggable; the content view never moves.
+            if (!isDrawerView(child) || child != findDrawerWithGravity(mGravity)) {
+                return false;
+            }
+            if (mTranslationPositioning) {
+                // ViewDragHelper hit-tests against the layout bounds, which in
+                // translation mode are always the open position.
+                return findTopChildUnder((int) mLastMotionX, (int) mLastMotionY) == child;
+            }
+            return true;
+        }
+
+        @Override
+        public void onViewCaptured(View capturedChild, int activePointerId) {
+            // The finger takes over from a settle or nested scroll in progress.
+            abortSettle(capturedChild);
+            mNestedDrawer = null;
+            closeOtherDrawer(capturedChild);
+        }
+
+        @Override
+        public int clampViewPositionHorizontal(View child, int left, int dx) {
+            return child.getLeft();
+        }
 
+        @Override
+        public int clampViewPositionVertical(View child, int top, int dy) {
+            // ViewDragHelper also calls this to probe whether a view can move
+            // before capturing it, so it must not move anything itself.
+            if (mTranslationPositioning) {
+                // top is derived from the layout bounds, which sit at the open
+                // position; the drawer moves from where it is drawn.
+                return clampDrawerTop(child, getDrawerTop(child) + dy);
+            }
+            return clampDrawerTop(child, top);
+        }
 
-    public boolean isDrawerOpen() {
-        return ((LayoutParams) mDrawerView.getLayoutParams()).knownOpen;
-    }
+        @Override
+        public int getViewVerticalDragRange(View child) {
+            return isDrawerView(child) ? child.getHeight() : 0;
+        }
 
+        @Override
+        public void onViewReleased(View releasedChild, float xvel, float yvel) {
+            // ViewDragHelper reports velocities below MIN_FLING_VELOCITY as 0.
+            releaseDrawer(releasedChild, yvel);
+        }
 
+        @Override
+        public void onEdgeDragStarted(int edgeFlags, int pointerId) {
+            final View drawerView = findDrawerWithGravity(mGravity);
+            if (drawerView != null) {
+                ensureDrawerInflated(drawerView);
+                mDragger.captureChildView(drawerView, pointerId);
+            }
+        }
 
+        @Override
+        public void onViewPositionChanged(View changedView, int left, int top, int dx, int dy) {
+            if (mTranslationPositioning) {
+                // ViewDragHelper offset the bounds to the drawn top; put them
+                // back at the open position and move by translationY instead.
+                final int openTop = getDrawerOpenTop(changedView);
+                changedView.setTranslationY(top - openTop);
+                ViewCompat.offsetTopAndBottom(changedView, openTop - changedView.getTop());
+            }
+            onDrawerPositionChanged(changedView, top);
+        }
 
-    @Override
-    public void computeScroll() {
-        final int childCount = getChildCount();
-        float scrimOpacity = 0;
-        for (int i = 0; i < childCount; i++) {
-            final float onscreen = ((LayoutParams) getChildAt(i).getLayoutParams()).onScreen;
-            scrimOpacity = Math.max(scrimOpacity, onscreen);
+        @Override
+        public void onViewDragStateChanged(int state) {
+            updateDrawerState(state, mDragger.getCapturedView());
         }
-        mContentScrimOpacity = scrimOpacity;
-        if (mDragHelper.continueSettling(true)) {
-            ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    /**
+     * Settles a drawer let go of with the given velocity at one of its anchors.
+     * Without velocity, the drawer snaps to whichever anchor it is closest to.
+     */
+    private void releaseDrawer(View drawerView, float yvel) {
+        final LayoutParams lp = (LayoutParams) drawerView.getLayoutParams();
+        if (lp.snapCount == 0) {
+            buildSnapTable(lp, drawerView.getHeight());
         }
+        // The table is in visible pixels, which grow downwards for the top
+        // drawer and upwards for the bottom one.
+        final float openingVelocity = isBottomDrawer(drawerView) ? -yvel : yvel;
+        final int showing = findSnapShowing(lp,
+                getDrawerShowing(drawerView, getDrawerTop(drawerView)), openingVelocity);
+
+        startSettle(drawerView, getDrawerTopForShowing(drawerView, showing), yvel);
     }
 
-    public class ViewDragCallback extends ViewDragHelper.Callback {
-        @Override
-        public boolean tryCaptureView(View child, int pointerId) {
-            return false;
+    private void closeOtherDrawer(View drawerView) {
+        final View other = drawerView == mTopDrawerView ? mBottomDrawerView : mTopDrawerView;
+        if (other != null && getDrawerViewOffset(other) > 0) {
+            closeDrawerView(other);
         }
+    }
 
-        @Override
-        public void onViewPositionChanged(View changedView, int left, int top, int dx, int dy) {
-            float offset;
-            final int childHeight = changedView.getHeight();
+    void onDrawerPositionChanged(View changedView, int top) {
+        // This reverses the positioning shown in onLayout.
+        final int height = changedView.getHeight();
+        final int oldShowing = Math.round(height * getDrawerViewOffset(changedView));
+        final int showing = getDrawerShowing(changedView, top);
+        final float oldScrimOpacity = mContentScrimOpacity;
+
+        setDrawerViewOffset(changedView, (float) showing / height);
 
+        if (mMetrics != null) {
+            mMetrics.onDrawerMoved(isDragging() ? mLastMotionEventTime : -1);
+        }
 
-            // This reverses the positioning shown in onLayout.
-            offset = 1 - ((float) (-top) / (childHeight));
+        updateContentOcclusion();
 
-            setDrawerViewOffset(changedView, offset);
+        if (oldShowing != showing) {
+            final Rect dirty = setDrawerBandDirty(changedView, oldShowing, showing,
+                    mContentScrimOpacity != oldScrimOpacity);
+            invalidate(dirty.left, dirty.top, dirty.right, dirty.bottom);
+        }
+    }
 
-            final View contentView = mContentView;
-            final boolean isContentViewVisible = offset == 1.f
-                    && changedView.getMeasuredHeight() == getMeasuredHeight();
+    /**
+     * @return true if either edge's drag helper is dragging a drawer
+     */
+    private boolean isDragging() {
+        return mDragHelper.getViewDragState() == STATE_DRAGGING
+                || mBottomDragHelper.getViewDragState() == STATE_DRAGGING;
+    }
 
-            contentView.setVisibility(isContentViewVisible ? INVISIBLE : VISIBLE);
+    /**
+     * Tracks whether a drawer covers the whole content view. Nothing happens
+     * unless the covered state flips, so drag steps on either side of the
+     * boundary cost a comparison and not a visibility change each.
+     */
+    private void updateContentOcclusion() {
+        final View contentView = mContentView;
+        if (contentView == null) {
+            return;
+        }
+        final Rect content = mContentRect;
+        View coveringDrawer = null;
+        if (!getContentVisibleRect(content)) {
+            // Nothing of the content is on screen to be covered.
+        } else if (isCovering(mTopDrawerView, content)) {
+            coveringDrawer = mTopDrawerView;
+        } else if (isCovering(mBottomDrawerView, content)) {
+            coveringDrawer = mBottomDrawerView;
+        }
+        final boolean covered = coveringDrawer != null;
+        if (covered == mContentCovered) {
+            return;
+        }
+        mContentCovered = covered;
 
-            invalidate();
+        if (covered) {
+            // Only hide the content when none of it can show through the drawer.
+            if (coversContent(coveringDrawer, content)) {
+                contentView.setVisibility(INVISIBLE);
+                mContentHidden = true;
+            }
+        } else if (mContentHidden) {
+            contentView.setVisibility(VISIBLE);
+            mContentHidden = false;
         }
 
-        @Override
-        public void onViewDragStateChanged(int state) {
-            updateDrawerState(state, mDragHelper.getCapturedView());
+        if (mOcclusionListener != null) {
+            if (covered) {
+                mOcclusionListener.onContentCovered(contentView);
+            } else {
+                mOcclusionListener.onContentUncovered(contentView);
+            }
         }
     }
 
+    /**
+     * Sets {@code outRect} to the part of the content view inside this layout,
+     * as laid out and moved by push mode. Push mode's scale only shrinks the
+     * content, so the unscaled bounds are never smaller than what is drawn.
+     *
+     * @return false if none of the content view is inside this layout
+     */
+    private boolean getContentVisibleRect(Rect outRect) {
+        final View contentView = mContentView;
+        final int top = contentView.getTop() + (int) contentView.getTranslationY();
+        outRect.set(contentView.getLeft(), top, contentView.getRight(),
+                top + contentView.getHeight());
+        return outRect.intersect(0, 0, getWidth(), getHeight());
+    }
+
+    private boolean coversContent(View drawerView, Rect content) {
+        final Rect opaque = mOpaqueRect;
+        return getDrawerOpaqueRect(drawerView, opaque) && opaque.contains(content);
+    }
+
+    /**
+     * @return true if the drawer, where it is on screen, spans all of
+     * {@code content}
+     */
+    private boolean isCovering(View drawerView, Rect content) {
+        return drawerView != null
+                && drawerView.getVisibility() == VISIBLE
+                && drawerView.getLeft() <= content.left
+                && drawerView.getRight() >= content.right
+                && getDrawerTop(drawerView) <= content.top
+                && getDrawerBottom(drawerView) >= content.bottom;
+    }
+
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
+        if (mLazyInflater != null) {
+            mLazyInflater.cancelIdle();
+        }
+        removeCallbacks(mSlideDispatchRunnable);
+        mSlideDispatchPending = false;
+        mIdleWork.setIdle(false);
+        restoreDrawerLayers();
+        releaseShadowStrip();
+        if (mMetrics != null) {
+            mMetrics.stop();
+        }
         mFirstLayout = true;
     }
 
@@ -173,17 +1827,46 @@ public class VerticalDrawerLayout extends ViewGroup {
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
         mFirstLayout = true;
+        if (mLazyInflater != null) {
+            mLazyInflater.scheduleOnIdle();
+        }
+        if (mMetrics != null) {
+            mMetrics.setRefreshRate(getDisplayRefreshRate());
+        }
+        mIdleWork.setIdle(mDrawerState == STATE_IDLE);
+        // The animator duration scale may have changed while detached.
+        mResolvedMotionPolicy = MOTION_AUTO;
     }
 
     @Override
     protected void onFinishInflate() {
         super.onFinishInflate();
         int childCount = getChildCount();
-        if (childCount != 2) {
-            throw new IllegalArgumentException("There must be 2 child in VerticalDrawerLayout");
+        if (childCount != 2 && childCount != 3) {
+            throw new IllegalArgumentException("There must be 2 or 3 children in VerticalDrawerLayout");
         }
         mContentView = getChildAt(0);
-        mDrawerView = getChildAt(1);
+        mTopDrawerView = null;
+        mBottomDrawerView = null;
+        for (int i = 1; i < childCount; i++) {
+            final View child = getChildAt(i);
+            final int gravity = ((LayoutParams) child.getLayoutParams()).gravity
+                    & Gravity.VERTICAL_GRAVITY_MASK;
+            if (gravity == Gravity.BOTTOM) {
+                if (mBottomDrawerView != null) {
+                    throw new IllegalArgumentException("There can only be one drawer with gravity BOTTOM");
+                }
+                mBottomDrawerView = child;
+            } else {
+                // No gravity means TOP, as before gravity was honored.
+                if (mTopDrawerView != null) {
+                    throw new IllegalArgumentException("There can only be one drawer with gravity TOP");
+                }
+                mTopDrawerView = child;
+            }
+        }
+        mDrawerView = mTopDrawerView != null ? mTopDrawerView : mBottomDrawerView;
+        createLazyInflater();
     }
 
     @Override
@@ -208,7 +1891,7 @@ public class VerticalDrawerLayout extends ViewGroup {
                         widthSize - lp.leftMargin - lp.rightMargin, MeasureSpec.EXACTLY);
                 final int contentHeightSpec = MeasureSpec.makeMeasureSpec(
                         heightSize - lp.topMargin - lp.bottomMargin, MeasureSpec.EXACTLY);
-                child.measure(contentWidthSpec, contentHeightSpec);
+                measureChildIfNeeded(child, lp, contentWidthSpec, contentHeightSpec);
             } else {
                 final int drawerWidthSpec = getChildMeasureSpec(widthMeasureSpec,
                         lp.leftMargin + lp.rightMargin,
@@ -216,14 +1899,47 @@ public class VerticalDrawerLayout extends ViewGroup {
                 final int drawerHeightSpec = getChildMeasureSpec(heightMeasureSpec,
                         mMinDrawerMargin + lp.topMargin + lp.bottomMargin,
                         lp.height);
-                child.measure(drawerWidthSpec, drawerHeightSpec);
+                measureChildIfNeeded(child, lp, drawerWidthSpec, drawerHeightSpec);
             }
         }
     }
 
+    /**
+     * Measures the child unless it was last measured with the same specs and
+     * has not requested a layout since. A requestLayout deep in the content
+     * then re-measures the content only, not the drawer next to it.
+     */
+    private void measureChildIfNeeded(View child, LayoutParams lp, int widthSpec, int heightSpec) {
+        if (widthSpec == lp.measuredWidthSpec && heightSpec == lp.measuredHeightSpec
+                && !child.isLayoutRequested()) {
+            mSkippedChildMeasureCount++;
+            return;
+        }
+        child.measure(widthSpec, heightSpec);
+        lp.measuredWidthSpec = widthSpec;
+        lp.measuredHeightSpec = heightSpec;
+        mChildMeasureCount++;
+    }
+
+    /**
+     * @return how many times onMeasure measured a child
+     */
+    int getChildMeasureCount() {
+        return mChildMeasureCount;
+    }
+
+    /**
+     * @return how many times onMeasure skipped measuring a child whose specs
+     * had not changed
+     */
+    int getSkippedChildMeasureCount() {
+        return mSkippedChildMeasureCount;
+    }
+
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
         mInLayout = true;
+        final int height = b - t;
 
         for (int i = 0, childCount = getChildCount(); i < childCount; i++) {
             final View child = getChildAt(i);
@@ -232,29 +1948,61 @@ public class VerticalDrawerLayout extends ViewGroup {
 
             if (isContentView(child)) {
                 child.layout(lp.leftMargin, lp.topMargin, lp.leftMargin + child.getMeasuredWidth(), lp.topMargin + child.getMeasuredHeight());
+                continue;
+            }
 
-                final View drawerView = mDrawerView;
-                if (drawerView != null) {
-                    final LayoutParams drawerLayoutParams = (LayoutParams) drawerView.getLayoutParams();
-                    if (drawerLayoutParams.onScreen == 1.f
-                            && drawerView.getMeasuredHeight() == getMeasuredHeight()) {
-                        child.setVisibility(INVISIBLE);
-                    }
-                }
-            } else if (lp.onScreen == 0) { // Drawer view - hidden
-
-                child.layout(lp.leftMargin, -child.getMeasuredHeight(), lp.leftMargin + child.getMeasuredWidth(), 0);
-            } else { // Drawer view - displayed
-                final int top = -child.getMeasuredHeight() + (int) ((child.getMeasuredHeight()) * lp.onScreen);
-
-                child.layout(lp.leftMargin, top, lp.leftMargin + child.getMeasuredWidth(), (int) ((child.getMeasuredHeight()) * lp.onScreen));
+            layoutDrawerView(child, height);
+            buildSnapTable(lp, child.getMeasuredHeight());
+            updateDrawerElevation(child);
+            if (mFirstLayout && lp.slideBindings != null) {
+                // Offsets set before the first layout don't go through setDrawerViewOffset.
+                lp.slideBindings.apply(lp.onScreen);
             }
         }
+
+        if (mContentView != null) {
+            updateContentOcclusion();
+        }
+        updateContentScrim();
+        updateContentPush();
         mInLayout = false;
         mFirstLayout = false;
 
     }
 
+    /**
+     * Lays out a drawer at its {@link LayoutParams#onScreen} offset in a layout
+     * {@code height} pixels high.
+     */
+    private void layoutDrawerView(View child, int height) {
+        final LayoutParams lp = (LayoutParams) child.getLayoutParams();
+        final int childHeight = child.getMeasuredHeight();
+        // Rounded rather than truncated, so an offset taken from an
+        // anchor maps back onto exactly that anchor.
+        final int showing = Math.round(childHeight * lp.onScreen);
+        final boolean bottom = isBottomDrawer(child);
+        final int openTop = getDrawerOpenTop(child, height);
+        final int top = bottom ? height - showing : showing - childHeight;
+        if (mTranslationPositioning) { // Drawer view - laid out open, slid by translationY
+            child.layout(lp.leftMargin, openTop, lp.leftMargin + child.getMeasuredWidth(), openTop + childHeight);
+            child.setTranslationY(top - openTop);
+        } else { // Drawer view - laid out where it shows
+            child.setTranslationY(0);
+            child.layout(lp.leftMargin, top, lp.leftMargin + child.getMeasuredWidth(), top + childHeight);
+        }
+    }
+
+    /**
+     * @return the top of a drawer fully open in a layout of {@code height}
+     */
+    private int getDrawerOpenTop(View drawerView, int height) {
+        return isBottomDrawer(drawerView) ? height - drawerView.getMeasuredHeight() : 0;
+    }
+
+    private int getDrawerOpenTop(View drawerView) {
+        return getDrawerOpenTop(drawerView, getHeight());
+    }
+
     @Override
     public void requestLayout() {
         if (!mInLayout) {
@@ -264,82 +2012,214 @@ public class VerticalDrawerLayout extends ViewGroup {
 
     @Override
     protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
-        final int width = getWidth();
         int clipTop = 0, clipBottom = getHeight();
         boolean drawingContent = isContentView(child);
         final int restoreCount = canvas.save();
 
-        if (drawingContent) {
-            final int childCount = getChildCount();
-            for (int i = 0; i < childCount; i++) {
-                final View v = getChildAt(i);
-                if (v == child || v.getVisibility() != VISIBLE ||
-                        !hasOpaqueBackground(v) || !(v == mDrawerView) ||
-                        v.getWidth() < width) {
-                    continue;
-                }
+        if (child == mPromotedDrawer) {
+            checkDrawerLayerDirty(child);
+        }
 
-                final int vBottom = v.getBottom();
-                if (vBottom > clipTop) {
-                    clipTop = vBottom;
+        if (drawingContent) {
+            // The content only needs to draw between the opaque drawers. Each
+            // drawer's children are walked once for all of the clips.
+            final Rect topOpaque = mTopOpaqueRect;
+            final Rect bottomOpaque = mBottomOpaqueRect;
+            getDrawerOpaqueRect(mTopDrawerView, topOpaque);
+            getDrawerOpaqueRect(mBottomDrawerView, bottomOpaque);
+            clipTop = getContentClipTop(topOpaque);
+            clipBottom = getContentClipBottom(bottomOpaque);
+            canvas.clipRect(0, clipTop, getWidth(), clipBottom);
+            clipOutDrawerInterior(canvas, mTopDrawerView, topOpaque);
+            clipOutDrawerInterior(canvas, mBottomDrawerView, bottomOpaque);
+        } else if (isDrawerView(child) && getDrawerVisibleRect(child, mDrawerClipRect)) {
+            // Only the on-screen slice of the drawer draws, so children outside
+            // of it are rejected before they draw. An elevation shadow falls
+            // below the slice and is left unclipped on that side.
+            final Rect slice = mDrawerClipRect;
+            slice.offset(child.getLeft(), getDrawerTop(child));
+            if (usesElevationShadow()) {
+                if (isBottomDrawer(child)) {
+                    slice.top = 0;
+                } else {
+                    slice.bottom = getHeight();
                 }
             }
-            canvas.clipRect(0, clipTop, getWidth(), clipBottom);
+            canvas.clipRect(slice);
         }
         final boolean result = super.drawChild(canvas, child, drawingTime);
-        canvas.restoreToCount(restoreCount);
 
-        if (mContentScrimOpacity > 0 && drawingContent) {
+        if (mContentScrimOpacity > 0 && drawingContent && isScrimVisible()) {
+            // Filled within the content clip, so no paint has to change per frame.
             final int baseAlpha = (mContentScrimColor & 0xff000000) >>> 24;
             final int imag = (int) (baseAlpha * mContentScrimOpacity);
-            final int color = imag << 24 | (mContentScrimColor & 0xffffff);
-            mContentScrimPaint.setColor(color);
-
-            canvas.drawRect(0, clipTop, getWidth(), clipBottom, mContentScrimPaint);
-        } else if (mShadow != null) {
-            final int shadowHeight = mShadow.getIntrinsicHeight();
-            final int childBottom = child.getBottom();
-            final int showing = childBottom;
-            final int drawerPeekDistance = mDragHelper.getEdgeSize();
-            final float alpha = Math.max(0, Math.min((float) showing / drawerPeekDistance, 1.f));
-            mShadow.setBounds(child.getLeft(), childBottom - shadowHeight, child.getRight(), getHeight());
-            mShadow.setAlpha((int) (0xff * alpha));
-            mShadow.draw(canvas);
+            canvas.drawColor(imag << 24 | (mContentScrimColor & 0xffffff));
         }
+        canvas.restoreToCount(restoreCount);
 
+        if (mShadow != null && !usesElevationShadow() && isDrawerView(child)) {
+            drawDrawerShadow(canvas, child);
+        }
 
         return result;
     }
 
+    /**
+     * Replaces the paint the shadow strip is drawn with. A test seam: the frame
+     * allocation test draws with a paint whose alpha Robolectric doesn't
+     * allocate for.
+     */
+    void setShadowPaint(Paint paint) {
+        mShadowPaint = paint;
+        mShadowAlpha = paint.getAlpha();
+    }
+
+    private void drawDrawerShadow(Canvas canvas, View drawerView) {
+        final int showing = getDrawerShowing(drawerView, getDrawerTop(drawerView));
+        if (showing <= 0) {
+            return;
+        }
+        final Bitmap strip = getShadowStrip(drawerView.getWidth());
+        if (strip == null) {
+            return;
+        }
+        final int drawerPeekDistance = mDragHelper.getEdgeSize();
+        final float alpha = Math.min((float) showing / drawerPeekDistance, 1.f);
+        final int shadowAlpha = (int) (0xff * alpha);
+        if (shadowAlpha != mShadowAlpha) {
+            mShadowAlpha = shadowAlpha;
+            mShadowPaint.setAlpha(shadowAlpha);
+        }
+        if (isBottomDrawer(drawerView)) {
+            // The strip is drawn for a top drawer; a bottom drawer draws it
+            // mirrored about its top edge.
+            final int edge = getDrawerTop(drawerView);
+            final int saveCount = canvas.save();
+            canvas.scale(1, -1, 0, edge);
+            canvas.drawBitmap(strip, drawerView.getLeft(), edge, mShadowPaint);
+            canvas.restoreToCount(saveCount);
+        } else {
+            canvas.drawBitmap(strip, drawerView.getLeft(), getDrawerBottom(drawerView), mShadowPaint);
+        }
+    }
+
     @Override
     public boolean onInterceptTouchEvent(MotionEvent ev) {
-        boolean interceptForDrag = mDragHelper.shouldInterceptTouchEvent(ev);
+        mLastMotionX = ev.getX();
+        mLastMotionY = ev.getY();
+        mLastMotionEventTime = ev.getEventTime();
+        final int action = MotionEventCompat.getActionMasked(ev);
+        if (action == MotionEvent.ACTION_DOWN) {
+            mDownInEdge = isInEdgeZone(mTopDrawerView, ev.getY())
+                    || isInEdgeZone(mBottomDrawerView, ev.getY());
+            mGestureAxis = GESTURE_AXIS_UNDECIDED;
+            mInitialMotionX = ev.getX();
+            mInitialMotionY = ev.getY();
+        } else if (action == MotionEvent.ACTION_MOVE && mGestureAxis == GESTURE_AXIS_UNDECIDED) {
+            decideGestureAxis(ev);
+        }
+
+        if (mGestureAxis == GESTURE_AXIS_HORIZONTAL) {
+            // A sideways gesture belongs to the children, such as a pager in
+            // the content, so the drag helpers don't track the rest of it.
+            mPassedThroughEventCount++;
+            return false;
+        }
+
+        // Once a nested scrolling child has taken the gesture it moves the
+        // drawer itself, so the drag helpers are left out of it, unless the
+        // gesture began in an edge zone where edge drags take precedence.
+        boolean interceptForDrag = false;
+        if (!mNestedScrollInProgress || mDownInEdge) {
+            // Both helpers need to see every event, so no short-circuit here.
+            interceptForDrag = mDragHelper.shouldInterceptTouchEvent(ev)
+                    | mBottomDragHelper.shouldInterceptTouchEvent(ev);
+        }
         boolean interceptForTap = false;
 
-        final int action = MotionEventCompat.getActionMasked(ev);
         switch (action) {
             case MotionEvent.ACTION_DOWN: {
                 final float x = ev.getX();
                 final float y = ev.getY();
 
-                final View touchedView = mDragHelper.findTopChildUnder((int) x, (int) y);
+                final View touchedView = findTopChildUnder((int) x, (int) y);
                 if (isContentView(touchedView)) {
                     if (mContentScrimOpacity > 0) {
                         interceptForTap = true;
                     }
                 }
 
+                // A touch in the edge zone may turn into an edge drag a few
+                // events from now; get the drawer ready meanwhile.
+                if (isInEdgeZone(mTopDrawerView, y)) {
+                    prepareDrawer(mTopDrawerView);
+                } else if (isInEdgeZone(mBottomDrawerView, y)) {
+                    prepareDrawer(mBottomDrawerView);
+                }
+
                 break;
             }
         }
 
+        final boolean intercept = interceptForDrag || interceptForTap;
+        if (intercept) {
+            mInterceptedEventCount++;
+        } else {
+            mPassedThroughEventCount++;
+        }
+        return intercept;
+    }
+
+    /**
+     * Locks the gesture to the axis it first moves along past the touch slop.
+     * A horizontal one is dropped by the drag helpers before they see the move.
+     */
+    private void decideGestureAxis(MotionEvent ev) {
+        final float dx = Math.abs(ev.getX() - mInitialMotionX);
+        final float dy = Math.abs(ev.getY() - mInitialMotionY);
+        final int touchSlop = mDragHelper.getTouchSlop();
+        if (dx <= touchSlop && dy <= touchSlop) {
+            return;
+        }
+        if (dx > dy) {
+            mGestureAxis = GESTURE_AXIS_HORIZONTAL;
+            mDragHelper.cancel();
+            mBottomDragHelper.cancel();
+        } else {
+            mGestureAxis = GESTURE_AXIS_VERTICAL;
+        }
+    }
+
+    /**
+     * @return how many touch events onInterceptTouchEvent took from the children
+     */
+    int getInterceptedEventCount() {
+        return mInterceptedEventCount;
+    }
+
+    /**
+     * @return how many touch events onInterceptTouchEvent left to the children,
+     * including those of a horizontal gesture that skipped the drag helpers
+     */
+    int getPassedThroughEventCount() {
+        return mPassedThroughEventCount;
+    }
 
-        return interceptForDrag || interceptForTap;
+    private boolean isInEdgeZone(View drawerView, float y) {
+        if (drawerView == null) {
+            return false;
+        }
+        final int edgeSize = mDragHelper.getEdgeSize();
+        return isBottomDrawer(drawerView) ? y > getHeight() - edgeSize : y < edgeSize;
     }
 
     @Override
     public boolean onTouchEvent(MotionEvent ev) {
+        mLastMotionX = ev.getX();
+        mLastMotionY = ev.getY();
+        mLastMotionEventTime = ev.getEventTime();
         mDragHelper.processTouchEvent(ev);
+        mBottomDragHelper.processTouchEvent(ev);
 
         final int action = ev.getAction();
         switch (action & MotionEventCompat.ACTION_MASK) {
@@ -355,26 +2235,239 @@ public class VerticalDrawerLayout extends ViewGroup {
             case MotionEvent.ACTION_UP: {
                 final float x = ev.getX();
                 final float y = ev.getY();
-                final View touchedView = mDragHelper.findTopChildUnder((int) x, (int) y);
+                final View touchedView = findTopChildUnder((int) x, (int) y);
+
+                if (touchedView == null) {
+                    return false;
+                }
+
+                if (isContentView(touchedView)) {
+                    if (mContentScrimOpacity > 0) {
+                        closeDrawers();
+                    }
+                }
+
+                break;
+            }
+            case MotionEvent.ACTION_CANCEL: {
+                break;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Takes a vertical nested scroll only when a drawer can follow it, so
+     * that otherwise it goes on to the ancestors as if this layout weren't
+     * there. What the drawers leave of an accepted one is passed on to them
+     * too.
+     */
+    @Override
+    public boolean onStartNestedScroll(View child, View target, int nestedScrollAxes) {
+        return (nestedScrollAxes & ViewCompat.SCROLL_AXIS_VERTICAL) != 0
+                && !isDragging()
+                && canDrawerFollowNestedScroll(child);
+    }
+
+    /**
+     * @param child the direct child the nested scroll comes from
+     * @return true if some drawer could move for a scroll from {@code child}
+     */
+    private boolean canDrawerFollowNestedScroll(View child) {
+        if (isPartlyOpen(mTopDrawerView) || isPartlyOpen(mBottomDrawerView)) {
+            return true;
+        }
+        if (isDrawerView(child)) {
+            // Overscroll in a drawer can only push that drawer closed.
+            return getDrawerViewOffset(child) > 0;
+        }
+        // Overscroll in the content can only pull a closed drawer open.
+        return isClosed(mTopDrawerView) || isClosed(mBottomDrawerView);
+    }
+
+    private boolean isClosed(View drawerView) {
+        return drawerView != null && getDrawerViewOffset(drawerView) == 0;
+    }
+
+    @Override
+    public void onNestedScrollAccepted(View child, View target, int axes) {
+        mNestedScrollingParentHelper.onNestedScrollAccepted(child, target, axes);
+        startNestedScroll(axes & ViewCompat.SCROLL_AXIS_VERTICAL);
+        mNestedScrollInProgress = true;
+        mNestedScrollChild = child;
+        mNestedDrawer = null;
+    }
+
+    @Override
+    public int getNestedScrollAxes() {
+        return mNestedScrollingParentHelper.getNestedScrollAxes();
+    }
+
+    @Override
+    public void onNestedPreScroll(View target, int dx, int dy, int[] consumed) {
+        // A partly open drawer moves before the child scrolls, in either
+        // direction, so it never stays stuck halfway.
+        View drawerView = mNestedDrawer;
+        if (drawerView == null) {
+            if (isPartlyOpen(mTopDrawerView)) {
+                drawerView = mTopDrawerView;
+            } else if (isPartlyOpen(mBottomDrawerView)) {
+                drawerView = mBottomDrawerView;
+            }
+        }
+        if (drawerView != null) {
+            consumed[1] = -dragDrawerBy(drawerView, -dy);
+        }
+
+        final int[] parentConsumed = mParentScrollConsumed;
+        if (dispatchNestedPreScroll(dx - consumed[0], dy - consumed[1], parentConsumed, null)) {
+            consumed[0] += parentConsumed[0];
+            consumed[1] += parentConsumed[1];
+        }
+    }
+
+    private boolean isPartlyOpen(View drawerView) {
+        if (drawerView == null) {
+            return false;
+        }
+        final float offset = getDrawerViewOffset(drawerView);
+        return offset > 0 && offset < 1;
+    }
+
+    @Override
+    public void onNestedScroll(View target, int dxConsumed, int dyConsumed,
+            int dxUnconsumed, int dyUnconsumed) {
+        int dyTaken = 0;
+        if (dyUnconsumed != 0) {
+            View drawerView = mNestedDrawer;
+            if (drawerView == null) {
+                if (isDrawerView(mNestedScrollChild)) {
+                    // Overscroll in a list inside a drawer pushes that drawer closed.
+                    drawerView = mNestedScrollChild;
+                } else {
+                    // Overscroll past the top of the content pulls the top drawer
+                    // open, past the bottom the bottom drawer.
+                    drawerView = dyUnconsumed < 0 ? mTopDrawerView : mBottomDrawerView;
+                }
+            }
+            if (drawerView != null) {
+                dyTaken = -dragDrawerBy(drawerView, -dyUnconsumed);
+            }
+        }
+        // What no drawer took goes on to our own parent.
+        dispatchNestedScroll(dxConsumed, dyConsumed + dyTaken,
+                dxUnconsumed, dyUnconsumed - dyTaken, null);
+    }
+
+    @Override
+    public boolean onNestedPreFling(View target, float velocityX, float velocityY) {
+        final View drawerView = mNestedDrawer;
+        if (drawerView == null) {
+            return dispatchNestedPreFling(velocityX, velocityY);
+        }
+        // Scroll velocity points the other way from the drawer's.
+        float yvel = -velocityY;
+        if (Math.abs(yvel) < mDragHelper.getMinVelocity()) {
+            yvel = 0;
+        }
+        mNestedDrawer = null;
+        releaseDrawer(drawerView, yvel);
+        return true;
+    }
+
+    @Override
+    public boolean onNestedFling(View target, float velocityX, float velocityY, boolean consumed) {
+        return dispatchNestedFling(velocityX, velocityY, consumed);
+    }
+
+    @Override
+    public void onStopNestedScroll(View target) {
+        mNestedScrollingParentHelper.onStopNestedScroll(target);
+        stopNestedScroll();
+        mNestedScrollInProgress = false;
+        mNestedScrollChild = null;
+        final View drawerView = mNestedDrawer;
+        if (drawerView != null) {
+            // Stopped without a fling.
+            mNestedDrawer = null;
+            releaseDrawer(drawerView, 0);
+        }
+    }
+
+    // NestedScrollingChild
+
+    @Override
+    public void setNestedScrollingEnabled(boolean enabled) {
+        mNestedScrollingChildHelper.setNestedScrollingEnabled(enabled);
+    }
+
+    @Override
+    public boolean isNestedScrollingEnabled() {
+        return mNestedScrollingChildHelper.isNestedScrollingEnabled();
+    }
+
+    @Override
+    public boolean startNestedScroll(int axes) {
+        return mNestedScrollingChildHelper.startNestedScroll(axes);
+    }
+
+    @Override
+    public void stopNestedScroll() {
+        mNestedScrollingChildHelper.stopNestedScroll();
+    }
+
+    @Override
+    public boolean hasNestedScrollingParent() {
+        return mNestedScrollingChildHelper.hasNestedScrollingParent();
+    }
+
+    @Override
+    public boolean dispatchNestedScroll(int dxConsumed, int dyConsumed, int dxUnconsumed,
+            int dyUnconsumed, int[] offsetInWindow) {
+        return mNestedScrollingChildHelper.dispatchNestedScroll(dxConsumed, dyConsumed,
+                dxUnconsumed, dyUnconsumed, offsetInWindow);
+    }
 
-                if (touchedView == null) {
-                    return false;
-                }
+    @Override
+    public boolean dispatchNestedPreScroll(int dx, int dy, int[] consumed, int[] offsetInWindow) {
+        return mNestedScrollingChildHelper.dispatchNestedPreScroll(dx, dy, consumed,
+                offsetInWindow);
+    }
 
-                if (isContentView(touchedView)) {
-                    if (mContentScrimOpacity > 0) {
-                        closeDrawer();
-                    }
-                }
+    @Override
+    public boolean dispatchNestedFling(float velocityX, float velocityY, boolean consumed) {
+        return mNestedScrollingChildHelper.dispatchNestedFling(velocityX, velocityY, consumed);
+    }
 
-                break;
-            }
-            case MotionEvent.ACTION_CANCEL: {
-                break;
-            }
-        }
+    @Override
+    public boolean dispatchNestedPreFling(float velocityX, float velocityY) {
+        return mNestedScrollingChildHelper.dispatchNestedPreFling(velocityX, velocityY);
+    }
 
-        return true;
+    /**
+     * Moves a drawer by {@code dy} for a nested scroll, within its range.
+     *
+     * @return how far the drawer actually moved
+     */
+    private int dragDrawerBy(View drawerView, int dy) {
+        if (dy == 0 || isDragging()) {
+            return 0;
+        }
+        final int top = getDrawerTop(drawerView);
+        final int newTop = clampDrawerTop(drawerView, top + dy);
+        if (newTop == top) {
+            return 0;
+        }
+        if (mNestedDrawer == null) {
+            ensureDrawerInflated(drawerView);
+            abortSettle(drawerView);
+            closeOtherDrawer(drawerView);
+            mNestedDrawer = drawerView;
+            updateDrawerState(STATE_DRAGGING, drawerView);
+        }
+        moveDrawerTo(drawerView, newTop);
+        return newTop - top;
     }
 
     @Override
@@ -391,21 +2484,157 @@ public class VerticalDrawerLayout extends ViewGroup {
         if (keyCode == KeyEvent.KEYCODE_BACK) {
             boolean isDrawerVisible = isDrawerVisible();
             if (isDrawerVisible) {
-                closeDrawer();
+                closeDrawers();
             }
             return isDrawerVisible;
         }
         return super.onKeyUp(keyCode, event);
     }
 
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        final SavedState ss = new SavedState(super.onSaveInstanceState());
+        if (mTopDrawerView != null) {
+            ss.topOnScreen = getSavedOffset(mTopDrawerView);
+            ss.topOpen = isSavedOpen(mTopDrawerView, ss.topOnScreen);
+        }
+        if (mBottomDrawerView != null) {
+            ss.bottomOnScreen = getSavedOffset(mBottomDrawerView);
+            ss.bottomOpen = isSavedOpen(mBottomDrawerView, ss.bottomOnScreen);
+        }
+        return ss;
+    }
+
+    /**
+     * @return the drawer's offset, or where it is headed if it is settling
+     * rather than a frame of the way there
+     */
+    private float getSavedOffset(View drawerView) {
+        final LayoutParams lp = (LayoutParams) drawerView.getLayoutParams();
+        if (lp.settling && drawerView.getHeight() > 0) {
+            return (float) getDrawerShowing(drawerView, (int) lp.settleMotion.target)
+                    / drawerView.getHeight();
+        }
+        return lp.onScreen;
+    }
+
+    private static boolean isSavedOpen(View drawerView, float savedOffset) {
+        final LayoutParams lp = (LayoutParams) drawerView.getLayoutParams();
+        return savedOffset == 1 || lp.knownOpen && savedOffset > 0;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        final SavedState ss = (SavedState) state;
+        super.onRestoreInstanceState(ss.getSuperState());
+        if (mTopDrawerView != null) {
+            restoreDrawerOffset(mTopDrawerView, ss.topOnScreen, ss.topOpen);
+        }
+        if (mBottomDrawerView != null) {
+            restoreDrawerOffset(mBottomDrawerView, ss.bottomOnScreen, ss.bottomOpen);
+        }
+    }
+
+    /**
+     * Puts a drawer back at a saved offset without animating. Before the
+     * first layout, which is the usual case after a configuration change,
+     * onLayout then places it directly; otherwise any motion is dropped and
+     * one layout pass moves it. Listeners get a single
+     * {@link DrawerListener#onDrawerSlide(View, float)} with the restored
+     * offset, but no opened or closed callback.
+     */
+    private void restoreDrawerOffset(View drawerView, float onScreen, boolean open) {
+        onScreen = Math.max(0, Math.min(onScreen, 1));
+        if (onScreen > 0) {
+            ensureDrawerInflated(drawerView);
+        }
+        if (!mFirstLayout) {
+            mDragHelper.abort();
+            mBottomDragHelper.abort();
+            abortSettle(drawerView);
+            mNestedDrawer = null;
+            requestLayout();
+        }
+        final LayoutParams lp = (LayoutParams) drawerView.getLayoutParams();
+        lp.knownOpen = open && onScreen > 0;
+        setDrawerViewOffset(drawerView, onScreen);
+        updateChildrenImportantForAccessibility(drawerView, lp.knownOpen);
+        updateDrawerState(STATE_IDLE, null);
+        invalidate();
+    }
+
     private boolean isDrawerVisible() {
-        return ((LayoutParams) mDrawerView.getLayoutParams()).onScreen > 0;
+        return mTopDrawerView != null && getDrawerViewOffset(mTopDrawerView) > 0
+                || mBottomDrawerView != null && getDrawerViewOffset(mBottomDrawerView) > 0;
     }
 
     private boolean isContentView(View view){
         return view==mContentView;
     }
 
+    private boolean isDrawerView(View view) {
+        return view != null && (view == mTopDrawerView || view == mBottomDrawerView);
+    }
+
+    boolean isBottomDrawer(View drawerView) {
+        return drawerView == mBottomDrawerView;
+    }
+
+    /**
+     * Like {@link ViewDragHelper#findTopChildUnder(int, int)}, but hit-tests
+     * against where the children are drawn, including their translation.
+     */
+    View findTopChildUnder(int x, int y) {
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            final View child = getChildAt(i);
+            final int translationY = (int) child.getTranslationY();
+            if (x >= child.getLeft() && x < child.getRight()
+                    && y >= child.getTop() + translationY && y < child.getBottom() + translationY) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Top of the drawer as drawn, which differs from its layout top when the
+     * drawer is positioned with translationY.
+     */
+    int getDrawerTop(View drawerView) {
+        return drawerView.getTop() + (int) drawerView.getTranslationY();
+    }
+
+    int getDrawerBottom(View drawerView) {
+        return drawerView.getBottom() + (int) drawerView.getTranslationY();
+    }
+
+    /**
+     * @return how many pixels of the drawer are visible when its top is at {@code top}
+     */
+    int getDrawerShowing(View drawerView, int top) {
+        return isBottomDrawer(drawerView) ? getHeight() - top : top + drawerView.getHeight();
+    }
+
+    /**
+     * @return the top at which {@code showing} pixels of the drawer are visible
+     */
+    int getDrawerTopForShowing(View drawerView, int showing) {
+        return isBottomDrawer(drawerView) ? getHeight() - showing : showing - drawerView.getHeight();
+    }
+
+    /**
+     * Limits a drawer top to between fully closed and fully open.
+     */
+    int clampDrawerTop(View drawerView, int top) {
+        final int closedTop = getDrawerTopForShowing(drawerView, 0);
+        final int openTop = getDrawerTopForShowing(drawerView, drawerView.getHeight());
+        return Math.max(Math.min(closedTop, openTop), Math.min(top, Math.max(closedTop, openTop)));
+    }
+
 
     private void closeDrawerView(View drawerView) {
         if (mFirstLayout) {
@@ -413,68 +2642,343 @@ public class VerticalDrawerLayout extends ViewGroup {
             lp.onScreen = 0.f;
             lp.knownOpen = false;
         } else {
-            mDragHelper.smoothSlideViewTo(drawerView, drawerView.getLeft(), -drawerView.getHeight());
-
+            settleDrawerTo(drawerView, getDrawerTopForShowing(drawerView, 0));
         }
+    }
 
-        invalidate();
+
+    /**
+     * Settle the drawer with {@code slideOffset} of it showing, usually one of
+     * its anchors. Before the first layout it is placed there directly.
+     *
+     * @param slideOffset fraction of the drawer to show, 0 to 1
+     * @see #setDrawerAnchorFractions(float...)
+     */
+    public void openDrawerTo(float slideOffset) {
+        openDrawerTo(mDrawerView, slideOffset);
     }
 
+    /**
+     * Like {@link #openDrawerTo(float)}, for the drawer along the given edge.
+     *
+     * @param gravity     {@link Gravity#TOP} or {@link Gravity#BOTTOM}
+     * @param slideOffset fraction of the drawer to show, 0 to 1
+     */
+    public void openDrawerTo(int gravity, float slideOffset) {
+        final View drawerView = findDrawerWithGravity(gravity);
+        if (drawerView == null) {
+            throw new IllegalArgumentException("No drawer view found with gravity "
+                    + gravityToString(gravity));
+        }
+        openDrawerTo(drawerView, slideOffset);
+    }
 
-    private void openDrawerView(View drawerView) {
+    private void openDrawerTo(View drawerView, float slideOffset) {
+        slideOffset = Math.max(0, Math.min(slideOffset, 1));
+        if (slideOffset > 0) {
+            ensureDrawerInflated(drawerView);
+        }
+
+        if (mFirstLayout) {
+            final LayoutParams lp = (LayoutParams) drawerView.getLayoutParams();
+            lp.onScreen = slideOffset;
+            lp.knownOpen = slideOffset == 1;
+        } else {
+            settleDrawerTo(drawerView, getDrawerTopForShowing(drawerView,
+                    Math.round(drawerView.getHeight() * slideOffset)));
+        }
+    }
 
+    private void openDrawerView(View drawerView) {
+        ensureDrawerInflated(drawerView);
 
         if (mFirstLayout) {
             final LayoutParams lp = (LayoutParams) drawerView.getLayoutParams();
             lp.onScreen = 1.f;
             lp.knownOpen = true;
         } else {
-            mDragHelper.smoothSlideViewTo(drawerView, drawerView.getLeft(), 0);
+            settleDrawerTo(drawerView, getDrawerTopForShowing(drawerView, drawerView.getHeight()));
+        }
+    }
+
+    /**
+     * Settles the drawer at {@code finalTop}. If it is already settling, only the
+     * target changes, so a reversal continues from the current velocity instead
+     * of starting again from rest.
+     */
+    private void settleDrawerTo(View drawerView, int finalTop) {
+        final LayoutParams lp = (LayoutParams) drawerView.getLayoutParams();
+        if (lp.settling) {
+            lp.settleMotion.target = finalTop;
+            postInvalidateSettle(drawerView);
+            return;
+        }
+        startSettle(drawerView, finalTop, 0);
+    }
+
+    /**
+     * Starts settling the drawer from where it is now, with the given velocity
+     * in pixels per second.
+     */
+    private void startSettle(View drawerView, int finalTop, float velocity) {
+        final LayoutParams lp = (LayoutParams) drawerView.getLayoutParams();
+        final int policy = getResolvedMotionPolicy();
+        if (policy == MOTION_INSTANT) {
+            jumpDrawerTo(drawerView, finalTop);
+            return;
+        }
+        lp.settleSpeedup = policy == MOTION_SHORTENED ? SHORTENED_SETTLE_SPEEDUP : 1.f;
+        final SettleEngine.Motion motion = lp.settleMotion;
+        motion.position = getDrawerTop(drawerView);
+        motion.velocity = velocity;
+        motion.target = finalTop;
+        if (motion.position == finalTop) {
+            lp.settling = false;
+            updateSettling();
+            updateDrawerState(STATE_IDLE, drawerView);
+            return;
         }
+        lp.settling = true;
+        lp.lastSettleFrameTime = currentAnimationTimeMillis();
+        mSettling = true;
+        updateDrawerState(STATE_SETTLING, drawerView);
+        postInvalidateSettle(drawerView);
+    }
 
+    /**
+     * Puts the drawer at {@code finalTop} without a settle, like opening or
+     * closing it before the first layout: its offset is set and it is laid out
+     * there once. Listeners see the new offset, then
+     * the drawer opening or closing.
+     */
+    private void jumpDrawerTo(View drawerView, int finalTop) {
+        if (isSettling(drawerView)) {
+            abortSettle(drawerView);
+        }
+        final float slideOffset =
+                (float) getDrawerShowing(drawerView, finalTop) / drawerView.getHeight();
+        setDrawerViewOffset(drawerView, slideOffset);
+        layoutDrawerView(drawerView, getHeight());
+        updateContentOcclusion();
+        // The scrim and shadow change along with the drawer.
         invalidate();
+        updateDrawerState(STATE_IDLE, drawerView);
+    }
+
+    /**
+     * The clock settles are stepped by. A test seam, so a test can run frames
+     * at the times it chooses.
+     */
+    long currentAnimationTimeMillis() {
+        return AnimationUtils.currentAnimationTimeMillis();
+    }
+
+    /**
+     * Steps one drawer's settle by a frame.
+     *
+     * @return true if it needs another frame
+     */
+    private boolean continueSettle(View drawerView, LayoutParams lp) {
+        // During a frame this is the frame's timestamp, so steps line up with
+        // vsync rather than with when computeScroll happens to run.
+        final long frameTime = currentAnimationTimeMillis();
+        final float deltaSeconds = Math.max(0, frameTime - lp.lastSettleFrameTime) / 1000.f
+                * lp.settleSpeedup;
+        lp.lastSettleFrameTime = frameTime;
+
+        final SettleEngine.Motion motion = lp.settleMotion;
+        boolean keepGoing = mSettleEngine.step(motion, deltaSeconds);
+
+        // The drawer can't travel past either end. Stopping at an end that isn't
+        // the target leaves the engine to pull it back.
+        final int closedTop = getDrawerTopForShowing(drawerView, 0);
+        final int openTop = getDrawerTopForShowing(drawerView, drawerView.getHeight());
+        final float minTop = Math.min(closedTop, openTop);
+        final float maxTop = Math.max(closedTop, openTop);
+        if (motion.position <= minTop || motion.position >= maxTop) {
+            motion.position = motion.position <= minTop ? minTop : maxTop;
+            motion.velocity = 0;
+            if (motion.position == motion.target) {
+                keepGoing = false;
+            }
+        }
+
+        moveDrawerTo(drawerView, keepGoing ? Math.round(motion.position) : (int) motion.target);
+
+        if (!keepGoing) {
+            lp.settling = false;
+            updateSettling();
+            updateDrawerState(STATE_IDLE, drawerView);
+        }
+        return keepGoing;
+    }
+
+    private void updateSettling() {
+        mSettling = isSettling(mTopDrawerView) || isSettling(mBottomDrawerView);
+    }
+
+    private static boolean isSettling(View drawerView) {
+        return drawerView != null && ((LayoutParams) drawerView.getLayoutParams()).settling;
+    }
+
+    private void abortSettle(View drawerView) {
+        ((LayoutParams) drawerView.getLayoutParams()).settling = false;
+        updateSettling();
+    }
+
+    /**
+     * Jumps settles in progress to their end.
+     */
+    private void finishSettle() {
+        finishSettle(mTopDrawerView);
+        finishSettle(mBottomDrawerView);
+    }
+
+    private void finishSettle(View drawerView) {
+        if (!isSettling(drawerView)) {
+            return;
+        }
+        abortSettle(drawerView);
+        final LayoutParams lp = (LayoutParams) drawerView.getLayoutParams();
+        moveDrawerTo(drawerView, (int) lp.settleMotion.target);
+        updateDrawerState(STATE_IDLE, drawerView);
+    }
+
+    /**
+     * Moves the drawer so that it is drawn with its top at {@code top}.
+     */
+    void moveDrawerTo(View drawerView, int top) {
+        if (mTranslationPositioning) {
+            drawerView.setTranslationY(top - drawerView.getTop());
+        } else {
+            ViewCompat.offsetTopAndBottom(drawerView, top - drawerView.getTop());
+        }
+        onDrawerPositionChanged(drawerView, top);
     }
 
     void updateDrawerState(int activeState, View activeDrawer) {
 
-        final int leftState = mDragHelper.getViewDragState();
+        final int topState = mDragHelper.getViewDragState();
+        final int bottomState = mBottomDragHelper.getViewDragState();
 
         final int state;
-        if (leftState == STATE_DRAGGING) {
+        if (topState == STATE_DRAGGING || bottomState == STATE_DRAGGING || mNestedDrawer != null) {
             state = STATE_DRAGGING;
-        } else if (leftState == STATE_SETTLING) {
+        } else if (topState == STATE_SETTLING || bottomState == STATE_SETTLING || mSettling) {
             state = STATE_SETTLING;
         } else {
             state = STATE_IDLE;
         }
 
-        if (activeDrawer != null && activeState == STATE_IDLE) {
+        if (activeDrawer != null && activeState == STATE_IDLE && !isDrawerMoving(activeDrawer)) {
             final LayoutParams lp = (LayoutParams) activeDrawer.getLayoutParams();
             if (lp.onScreen == 0) {
                 dispatchOnDrawerClosed(activeDrawer);
             } else if (lp.onScreen == 1) {
                 dispatchOnDrawerOpened(activeDrawer);
             }
-
+            dispatchOnDrawerAnchorReached(activeDrawer);
+        } else if (activeDrawer != null && activeState != STATE_IDLE) {
+            ((LayoutParams) activeDrawer.getLayoutParams()).restingAnchor = -1;
         }
 
         if (state != mDrawerState) {
+            if (state == STATE_IDLE) {
+                restoreDrawerLayers();
+            } else if (mDrawerState == STATE_IDLE) {
+                promoteDrawerLayers(activeDrawer, true);
+            }
+            if (mMetrics != null) {
+                mMetrics.onDrawerStateChanged(mDrawerState, state);
+            }
             mDrawerState = state;
+            mIdleWork.setIdle(state == STATE_IDLE);
 
-            if (mListener != null) {
-                mListener.onDrawerStateChanged(state);
+            final DrawerListener[] listeners = mListeners;
+            for (int i = 0, count = listeners.length; i < count; i++) {
+                listeners[i].onDrawerStateChanged(state);
             }
         }
 
 
     }
 
+    /**
+     * @return true while the drawer is dragged, settling or moved by a nested scroll
+     */
+    private boolean isDrawerMoving(View drawerView) {
+        if (isSettling(drawerView) || mNestedDrawer == drawerView) {
+            return true;
+        }
+        final ViewDragHelper dragger = isBottomDrawer(drawerView) ? mBottomDragHelper : mDragHelper;
+        return dragger.getViewDragState() == STATE_DRAGGING
+                && dragger.getCapturedView() == drawerView;
+    }
+
+    /**
+     * @param withContent whether to promote the scrimmed content as well
+     * @return true if the drawer is on its layer now
+     */
+    private boolean promoteDrawerLayers(View drawerView, boolean withContent) {
+        if (!mLayerPromotionEnabled || !isHardwareAccelerated()) {
+            return false;
+        }
+        removeCallbacks(mReleasePreparedLayersRunnable);
+        mDirtyDrawerFrames = 0;
+        if (mPromotedDrawer != null && mPromotedDrawer != drawerView) {
+            // Prepared for the other drawer, which isn't the one moving.
+            ViewCompat.setLayerType(mPromotedDrawer, ViewCompat.LAYER_TYPE_NONE, null);
+            mPromotedDrawer = null;
+        }
+        if (drawerView != null && mPromotedDrawer == null
+                && ViewCompat.getLayerType(drawerView) == ViewCompat.LAYER_TYPE_NONE) {
+            ViewCompat.setLayerType(drawerView, ViewCompat.LAYER_TYPE_HARDWARE, null);
+            mPromotedDrawer = drawerView;
+        }
+
+        // The content only stays static under the drawer when it is scrimmed.
+        final View contentView = mContentView;
+        if (withContent && contentView != null && !mContentLayerPromoted
+                && isScrimVisible()
+                && ViewCompat.getLayerType(contentView) == ViewCompat.LAYER_TYPE_NONE) {
+            ViewCompat.setLayerType(contentView, ViewCompat.LAYER_TYPE_HARDWARE, null);
+            mContentLayerPromoted = true;
+        }
+        return drawerView != null && mPromotedDrawer == drawerView;
+    }
+
+    private void restoreDrawerLayers() {
+        removeCallbacks(mReleasePreparedLayersRunnable);
+        if (mPromotedDrawer != null) {
+            ViewCompat.setLayerType(mPromotedDrawer, ViewCompat.LAYER_TYPE_NONE, null);
+            mPromotedDrawer = null;
+        }
+        if (mContentLayerPromoted) {
+            mContentLayerPromoted = false;
+            ViewCompat.setLayerType(mContentView, ViewCompat.LAYER_TYPE_NONE, null);
+        }
+    }
+
+    private void checkDrawerLayerDirty(View drawerView) {
+        // View#isDirty() is only available from Lollipop; below that there is
+        // no cheap way to tell, so the layer is kept for the whole motion.
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP || !drawerView.isDirty()) {
+            return;
+        }
+        if (++mDirtyDrawerFrames > MAX_DIRTY_LAYER_FRAMES) {
+            mPromotedDrawer = null;
+            ViewCompat.setLayerType(drawerView, ViewCompat.LAYER_TYPE_NONE, null);
+        }
+    }
+
     void dispatchOnDrawerClosed(View drawerView) {
         final LayoutParams lp = (LayoutParams) drawerView.getLayoutParams();
         if (lp.knownOpen) {
             lp.knownOpen = false;
-            if (mListener != null) {
-                mListener.onDrawerClosed(drawerView);
+            deliverFinalSlide(drawerView, 0.f);
+            final DrawerListener[] listeners = mListeners;
+            for (int i = 0, count = listeners.length; i < count; i++) {
+                listeners[i].onDrawerClosed(drawerView);
             }
 
             updateChildrenImportantForAccessibility(drawerView, false);
@@ -495,8 +2999,10 @@ public class VerticalDrawerLayout extends ViewGroup {
         final LayoutParams lp = (LayoutParams) drawerView.getLayoutParams();
         if (!lp.knownOpen) {
             lp.knownOpen = true;
-            if (mListener != null) {
-                mListener.onDrawerOpened(drawerView);
+            deliverFinalSlide(drawerView, 1.f);
+            final DrawerListener[] listeners = mListeners;
+            for (int i = 0, count = listeners.length; i < count; i++) {
+                listeners[i].onDrawerOpened(drawerView);
             }
 
             updateChildrenImportantForAccessibility(drawerView, true);
@@ -514,7 +3020,7 @@ public class VerticalDrawerLayout extends ViewGroup {
         final int childCount = getChildCount();
         for (int i = 0; i < childCount; i++) {
             final View child = getChildAt(i);
-            if (!isDrawerOpen && !(child == mDrawerView)
+            if (!isDrawerOpen && !isDrawerView(child)
                     || isDrawerOpen && child == drawerView) {
                 // Drawer is closed and this is a content view or this is an
                 // open drawer view, so it should be visible.
@@ -528,9 +3034,87 @@ public class VerticalDrawerLayout extends ViewGroup {
     }
 
 
+    /**
+     * Tells {@link AnchorDrawerListener}s once that the drawer came to rest at
+     * an anchor. The table is small and this only runs when the drawer stops,
+     * so looking the anchor up and the instanceof checks stay off the
+     * per-frame path.
+     */
+    void dispatchOnDrawerAnchorReached(View drawerView) {
+        final LayoutParams lp = (LayoutParams) drawerView.getLayoutParams();
+        final int anchor = indexOfSnapShowing(lp,
+                getDrawerShowing(drawerView, getDrawerTop(drawerView)));
+        if (anchor < 0 || anchor == lp.restingAnchor) {
+            return;
+        }
+        lp.restingAnchor = anchor;
+        final float anchorOffset = getDrawerViewOffset(drawerView);
+        final DrawerListener[] listeners = mListeners;
+        for (int i = 0, count = listeners.length; i < count; i++) {
+            if (listeners[i] instanceof AnchorDrawerListener) {
+                ((AnchorDrawerListener) listeners[i]).onDrawerAnchorReached(drawerView, anchorOffset);
+            }
+        }
+    }
+
     void dispatchOnDrawerSlide(View drawerView, float slideOffset) {
-        if (mListener != null) {
-            mListener.onDrawerSlide(drawerView, slideOffset);
+        if (mCoalesceSlideDispatch) {
+            if (mSlideDispatchPending && mPendingSlideView != drawerView) {
+                // The other drawer moved too; it keeps its own latest offset.
+                flushPendingSlide();
+            }
+            mPendingSlideView = drawerView;
+            mPendingSlideOffset = slideOffset;
+            if (!mSlideDispatchPending) {
+                mSlideDispatchPending = true;
+                ViewCompat.postOnAnimation(this, mSlideDispatchRunnable);
+            }
+            return;
+        }
+        deliverOnDrawerSlide(drawerView, slideOffset);
+    }
+
+    void flushPendingSlide() {
+        if (!mSlideDispatchPending) {
+            return;
+        }
+        mSlideDispatchPending = false;
+        final View drawerView = mPendingSlideView;
+        final float lastOffset = ((LayoutParams) drawerView.getLayoutParams()).dispatchedSlideOffset;
+        final float offset = mPendingSlideOffset;
+        if (offset == lastOffset) {
+            return;
+        }
+        if (offset != 0 && offset != 1
+                && Math.abs(offset - lastOffset) < mSlideDispatchThreshold) {
+            return;
+        }
+        deliverOnDrawerSlide(drawerView, offset);
+    }
+
+    /**
+     * Makes sure listeners saw the drawer's final offset before they are told it
+     * opened or closed, even if the last coalesced update was held back.
+     */
+    private void deliverFinalSlide(View drawerView, float finalOffset) {
+        if (!mCoalesceSlideDispatch) {
+            return;
+        }
+        if (mSlideDispatchPending && mPendingSlideView != drawerView) {
+            flushPendingSlide();
+        }
+        removeCallbacks(mSlideDispatchRunnable);
+        mSlideDispatchPending = false;
+        if (((LayoutParams) drawerView.getLayoutParams()).dispatchedSlideOffset != finalOffset) {
+            deliverOnDrawerSlide(drawerView, finalOffset);
+        }
+    }
+
+    private void deliverOnDrawerSlide(View drawerView, float slideOffset) {
+        ((LayoutParams) drawerView.getLayoutParams()).dispatchedSlideOffset = slideOffset;
+        final DrawerListener[] listeners = mListeners;
+        for (int i = 0, count = listeners.length; i < count; i++) {
+            listeners[i].onDrawerSlide(drawerView, slideOffset);
         }
     }
 
@@ -540,7 +3124,16 @@ public class VerticalDrawerLayout extends ViewGroup {
             return;
         }
 
+        final boolean wasShowing = lp.onScreen > 0;
         lp.onScreen = slideOffset;
+        if (wasShowing != slideOffset > 0) {
+            updateDrawerElevation(drawerView);
+        }
+        updateContentScrim();
+        updateContentPush();
+        if (lp.slideBindings != null) {
+            lp.slideBindings.apply(slideOffset);
+        }
         dispatchOnDrawerSlide(drawerView, slideOffset);
     }
 
@@ -584,7 +3177,47 @@ public class VerticalDrawerLayout extends ViewGroup {
         void onDrawerStateChanged(@State int newState);
     }
 
-    public static abstract class SimpleDrawerListener implements DrawerListener {
+    /**
+     * A {@link DrawerListener} that is also told when the drawer comes to rest
+     * at one of its anchors.
+     *
+     * @see #setDrawerAnchorFractions(float...)
+     * @see #setDrawerPeekHeight(int)
+     */
+    public interface AnchorDrawerListener extends DrawerListener {
+        /**
+         * Called when the drawer has settled at an anchor, including closed and
+         * fully open, after {@link #onDrawerClosed(View)} or
+         * {@link #onDrawerOpened(View)} for those two.
+         *
+         * @param drawerView   the drawer view
+         * @param anchorOffset fraction of the drawer showing at this anchor, 0 to 1
+         */
+        void onDrawerAnchorReached(View drawerView, float anchorOffset);
+    }
+
+    /**
+     * Listener for the drawer starting and stopping to cover the content view.
+     *
+     * @see #setContentOcclusionListener(ContentOcclusionListener)
+     */
+    public interface ContentOcclusionListener {
+        /**
+         * Called when the drawer has come to cover the whole content view.
+         *
+         * @param contentView the content view that is now covered
+         */
+        void onContentCovered(View contentView);
+
+        /**
+         * Called when part of the content view shows again.
+         *
+         * @param contentView the content view that is no longer covered
+         */
+        void onContentUncovered(View contentView);
+    }
+
+    public static abstract class SimpleDrawerListener implements AnchorDrawerListener {
         @Override
         public void onDrawerSlide(View drawerView, float slideOffset) {
         }
@@ -600,6 +3233,58 @@ public class VerticalDrawerLayout extends ViewGroup {
         @Override
         public void onDrawerStateChanged(int newState) {
         }
+
+        @Override
+        public void onDrawerAnchorReached(View drawerView, float anchorOffset) {
+        }
+    }
+
+    /**
+     * State saved across configuration changes and process death: for each
+     * drawer, whether it is open and exactly how far it is on screen.
+     */
+    protected static class SavedState extends BaseSavedState {
+        private static final int FLAG_TOP_OPEN = 1;
+        private static final int FLAG_BOTTOM_OPEN = 2;
+
+        float topOnScreen;
+        boolean topOpen;
+        float bottomOnScreen;
+        boolean bottomOpen;
+
+        public SavedState(Parcel in) {
+            super(in);
+            topOnScreen = in.readFloat();
+            bottomOnScreen = in.readFloat();
+            final int flags = in.readInt();
+            topOpen = (flags & FLAG_TOP_OPEN) != 0;
+            bottomOpen = (flags & FLAG_BOTTOM_OPEN) != 0;
+        }
+
+        public SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        @Override
+        public void writeToParcel(Parcel dest, int flags) {
+            super.writeToParcel(dest, flags);
+            dest.writeFloat(topOnScreen);
+            dest.writeFloat(bottomOnScreen);
+            dest.writeInt((topOpen ? FLAG_TOP_OPEN : 0) | (bottomOpen ? FLAG_BOTTOM_OPEN : 0));
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR =
+                new Parcelable.Creator<SavedState>() {
+                    @Override
+                    public SavedState createFromParcel(Parcel source) {
+                        return new SavedState(source);
+                    }
+
+                    @Override
+                    public SavedState[] newArray(int size) {
+                        return new SavedState[size];
+                    }
+                };
     }
 
     @Override
@@ -635,6 +3320,27 @@ public class VerticalDrawerLayout extends ViewGroup {
         float onScreen;
         boolean knownOpen;
 
+        // The specs the child was last measured with by this layout. They
+        // already include the margins, so a margin change shows up here too.
+        int measuredWidthSpec = INVALID_MEASURE_SPEC;
+        int measuredHeightSpec = INVALID_MEASURE_SPEC;
+
+        // Per drawer motion state.
+        final SettleEngine.Motion settleMotion = new SettleEngine.Motion();
+        boolean settling;
+        long lastSettleFrameTime;
+        float dispatchedSlideOffset = -1;
+
+        // Visible heights the drawer can rest at, ascending from 0 (closed) to
+        // its height (open). Rebuilt on each layout; the first snapCount
+        // entries are valid.
+        int[] snapShowing;
+        int snapCount;
+        int restingAnchor = -1;
+        float settleSpeedup = 1.f;
+
+        SlideBindings slideBindings;
+
         /**
          * {@inheritDoc}
          */
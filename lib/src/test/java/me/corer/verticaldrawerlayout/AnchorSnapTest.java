@@ -0,0 +1,139 @@
+package me.corer.verticaldrawerlayout;
+
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.DRAWER_HEIGHT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Releases the drawer at various positions and velocities with a peek anchor
+ * and a half open anchor, and checks where it settles.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class AnchorSnapTest {
+
+    private static final int PEEK = 100;
+
+    // Drawer tops of the anchors for a 400px drawer.
+    private static final int CLOSED_TOP = -DRAWER_HEIGHT;
+    private static final int PEEK_TOP = PEEK - DRAWER_HEIGHT;
+    private static final int HALF_TOP = -DRAWER_HEIGHT / 2;
+    private static final int OPEN_TOP = 0;
+
+    private VerticalDrawerLayout mLayout;
+    private View mDrawer;
+    private final List<Float> mAnchorsReached = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        mLayout = DrawerTestUtils.createLayout(RuntimeEnvironment.application);
+        mDrawer = mLayout.mDrawerView;
+        mLayout.setDrawerPeekHeight(PEEK);
+        mLayout.setDrawerAnchorFractions(0.5f);
+        mLayout.addDrawerListener(new VerticalDrawerLayout.SimpleDrawerListener() {
+            @Override
+            public void onDrawerAnchorReached(View drawerView, float anchorOffset) {
+                mAnchorsReached.add(anchorOffset);
+            }
+        });
+    }
+
+    private int release(int top, float yvel) {
+        mLayout.moveDrawerTo(mDrawer, top);
+        mLayout.mTopCallback.onViewReleased(mDrawer, 0, yvel);
+        DrawerTestUtils.settle(mLayout);
+        return mDrawer.getTop();
+    }
+
+    @Test
+    public void slowReleaseSnapsToNearestAnchor() {
+        assertEquals(CLOSED_TOP, release(-380, 0));
+        assertEquals(PEEK_TOP, release(-320, 0));
+        assertEquals(HALF_TOP, release(-240, 0));
+        assertEquals(OPEN_TOP, release(-60, 0));
+    }
+
+    @Test
+    public void tieGoesToTheMoreClosedAnchor() {
+        assertEquals(PEEK_TOP, release((PEEK_TOP + HALF_TOP) / 2, 0));
+    }
+
+    @Test
+    public void flingMovesAtLeastOneAnchor() {
+        // Projected position is still nearest the peek anchor it just passed.
+        assertEquals(HALF_TOP, release(PEEK_TOP + 5, 100));
+        assertEquals(PEEK_TOP, release(HALF_TOP - 5, -100));
+    }
+
+    @Test
+    public void fastFlingSkipsAnchors() {
+        assertEquals(OPEN_TOP, release(CLOSED_TOP + 10, 3000));
+        assertEquals(CLOSED_TOP, release(OPEN_TOP - 10, -3000));
+    }
+
+    @Test
+    public void anchorCallbackFiresOncePerArrival() {
+        release(-240, 0);
+        mLayout.updateDrawerState(VerticalDrawerLayout.STATE_IDLE, mDrawer);
+
+        assertEquals(1, mAnchorsReached.size());
+        assertEquals(0.5f, mAnchorsReached.get(0), 0.f);
+        assertFalse(mLayout.isDrawerOpen());
+    }
+
+    @Test
+    public void openAndClosedAreAnchorsToo() {
+        release(-60, 0);
+        release(-380, 0);
+
+        assertEquals(2, mAnchorsReached.size());
+        assertEquals(1.f, mAnchorsReached.get(0), 0.f);
+        assertEquals(0.f, mAnchorsReached.get(1), 0.f);
+    }
+
+    @Test
+    public void openDrawerToSettlesAtAnchor() {
+        mLayout.openDrawerTo(0.25f);
+        DrawerTestUtils.settle(mLayout);
+
+        assertEquals(PEEK_TOP, mDrawer.getTop());
+        assertEquals(1, mAnchorsReached.size());
+    }
+
+    @Test
+    public void anchorOffsetSurvivesRelayout() {
+        release(-240, 0);
+        DrawerTestUtils.layoutPass(mLayout);
+
+        assertEquals(HALF_TOP, mDrawer.getTop());
+    }
+
+    @Test
+    public void withoutAnchorsReleaseSnapsToEitherEnd() {
+        mLayout.setDrawerPeekHeight(0);
+        mLayout.setDrawerAnchorFractions();
+
+        assertEquals(CLOSED_TOP, release(-240, 0));
+        assertEquals(OPEN_TOP, release(-160, 0));
+        assertEquals(OPEN_TOP, release(-390, 500));
+        assertTrue(mLayout.isDrawerOpen());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fractionOutsideRangeIsRejected() {
+        mLayout.setDrawerAnchorFractions(1.f);
+    }
+}
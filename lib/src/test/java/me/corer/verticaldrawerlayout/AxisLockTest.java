@@ -0,0 +1,106 @@
+package me.corer.verticaldrawerlayout;
+
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays gestures over clickable content and checks which events
+ * onInterceptTouchEvent takes and which it leaves to the content once the
+ * gesture's axis is known.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class AxisLockTest {
+
+    private static final int DOWN = MotionEvent.ACTION_DOWN;
+    private static final int MOVE = MotionEvent.ACTION_MOVE;
+    private static final int UP = MotionEvent.ACTION_UP;
+
+    /**
+     * Sideways swipe across the middle of the content, like paging a carousel.
+     */
+    private static final int[][] HORIZONTAL_SWIPE = {
+            {DOWN, 0, 100, 400},
+            {MOVE, 16, 130, 402},
+            {MOVE, 32, 200, 405},
+            {MOVE, 48, 300, 410},
+            {UP, 56, 340, 412},
+    };
+
+    /**
+     * Starts sideways in the top edge zone, then turns down.
+     */
+    private static final int[][] EDGE_SIDEWAYS_THEN_DOWN = {
+            {DOWN, 0, 100, 4},
+            {MOVE, 16, 140, 8},
+            {MOVE, 32, 150, 120},
+            {MOVE, 48, 150, 260},
+            {UP, 300, 150, 260},
+    };
+
+    /**
+     * Quick swipe down starting inside the top edge zone.
+     */
+    private static final int[][] EDGE_FLING_DOWN = {
+            {DOWN, 0, 240, 4},
+            {MOVE, 16, 240, 40},
+            {MOVE, 32, 240, 90},
+            {MOVE, 48, 240, 150},
+            {UP, 56, 240, 170},
+    };
+
+    private VerticalDrawerLayout mLayout;
+
+    @Before
+    public void setUp() {
+        mLayout = DrawerTestUtils.createLayout(RuntimeEnvironment.application);
+        // The content takes the gesture, so every later event is offered to
+        // onInterceptTouchEvent first.
+        mLayout.mContentView.setClickable(true);
+    }
+
+    @Test
+    public void horizontalSwipePassesThrough() {
+        DrawerTestUtils.replay(mLayout, HORIZONTAL_SWIPE);
+
+        assertEquals(0, mLayout.getInterceptedEventCount());
+        assertEquals(HORIZONTAL_SWIPE.length, mLayout.getPassedThroughEventCount());
+    }
+
+    @Test
+    public void axisIsLockedForTheWholeGesture() {
+        DrawerTestUtils.replay(mLayout, EDGE_SIDEWAYS_THEN_DOWN);
+        DrawerTestUtils.settle(mLayout);
+
+        assertEquals(0, mLayout.getInterceptedEventCount());
+        assertEquals(0.f, mLayout.getDrawerViewOffset(mLayout.mDrawerView), 0.f);
+    }
+
+    @Test
+    public void verticalEdgeDragIsStillIntercepted() {
+        DrawerTestUtils.replay(mLayout, EDGE_FLING_DOWN);
+        DrawerTestUtils.settle(mLayout);
+
+        assertEquals(1, mLayout.getInterceptedEventCount());
+        assertEquals(1, mLayout.getPassedThroughEventCount());
+        assertTrue(mLayout.isDrawerOpen());
+    }
+
+    @Test
+    public void nextGestureDecidesAgain() {
+        DrawerTestUtils.replay(mLayout, HORIZONTAL_SWIPE);
+        DrawerTestUtils.replay(mLayout, EDGE_FLING_DOWN);
+        DrawerTestUtils.settle(mLayout);
+
+        assertTrue(mLayout.isDrawerOpen());
+    }
+}
@@ -0,0 +1,127 @@
+package me.corer.verticaldrawerlayout;
+
+import android.support.v4.view.ViewCompat;
+import android.view.Gravity;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.DRAWER_HEIGHT;
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.HEIGHT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Lays out a top and a bottom drawer side by side and checks that each opens
+ * from its own edge and that they do not end up open together.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class BottomDrawerTest {
+
+    private VerticalDrawerLayout mLayout;
+    private View mTop;
+    private View mBottom;
+
+    @Before
+    public void setUp() {
+        mLayout = DrawerTestUtils.createLayoutWithBottomDrawer(RuntimeEnvironment.application);
+        mTop = mLayout.findDrawerWithGravity(Gravity.TOP);
+        mBottom = mLayout.findDrawerWithGravity(Gravity.BOTTOM);
+    }
+
+    @Test
+    public void gravityIsResolvedOnce() {
+        assertSame(mTop, mLayout.mDrawerView);
+        assertTrue(mBottom != null && mBottom != mTop);
+        assertEquals(-DRAWER_HEIGHT, mTop.getTop());
+        assertEquals(HEIGHT, mBottom.getTop());
+    }
+
+    @Test
+    public void openDrawerSettlesFromBottomEdge() {
+        mLayout.openDrawer(Gravity.BOTTOM);
+        DrawerTestUtils.settle(mLayout);
+
+        assertEquals(HEIGHT - DRAWER_HEIGHT, mBottom.getTop());
+        assertTrue(mLayout.isDrawerOpen(Gravity.BOTTOM));
+        assertFalse(mLayout.isDrawerOpen(Gravity.TOP));
+        assertEquals(1.f, mLayout.getDrawerViewOffset(mBottom), 0.f);
+    }
+
+    @Test
+    public void upwardFlingOpensBottomDrawer() {
+        mLayout.moveDrawerTo(mBottom, HEIGHT - 60);
+        mLayout.mBottomCallback.onViewReleased(mBottom, 0, -3000);
+        DrawerTestUtils.settle(mLayout);
+
+        assertEquals(HEIGHT - DRAWER_HEIGHT, mBottom.getTop());
+        assertTrue(mLayout.isDrawerOpen(Gravity.BOTTOM));
+    }
+
+    @Test
+    public void capturingOneDrawerClosesTheOther() {
+        mLayout.openDrawer(Gravity.TOP);
+        DrawerTestUtils.settle(mLayout);
+
+        mLayout.mBottomCallback.onViewCaptured(mBottom, 0);
+        DrawerTestUtils.settle(mLayout);
+
+        assertFalse(mLayout.isDrawerOpen(Gravity.TOP));
+        assertEquals(-DRAWER_HEIGHT, mTop.getTop());
+    }
+
+    @Test
+    public void callbackOnlyCapturesItsOwnDrawer() {
+        final VerticalDrawerLayout.ViewDragCallback bottom = mLayout.mBottomCallback;
+
+        assertTrue(bottom.tryCaptureView(mBottom, 0));
+        assertFalse(bottom.tryCaptureView(mTop, 0));
+    }
+
+    @Test
+    public void overscrollAtListEndPullsBottomDrawerUp() {
+        final View content = mLayout.mContentView;
+        mLayout.onStartNestedScroll(content, content, ViewCompat.SCROLL_AXIS_VERTICAL);
+        mLayout.onNestedScrollAccepted(content, content, ViewCompat.SCROLL_AXIS_VERTICAL);
+        final int[] consumed = new int[2];
+        mLayout.onNestedPreScroll(content, 0, 100, consumed);
+        mLayout.onNestedScroll(content, 0, 0, 0, 100 - consumed[1]);
+
+        assertEquals(HEIGHT - 100, mBottom.getTop());
+        assertEquals(-DRAWER_HEIGHT, mTop.getTop());
+        assertEquals(VerticalDrawerLayout.STATE_DRAGGING, mLayout.getDrawerState());
+    }
+
+    @Test
+    public void closeDrawersClosesBoth() {
+        mLayout.openDrawer(Gravity.BOTTOM);
+        DrawerTestUtils.settle(mLayout);
+
+        mLayout.closeDrawers();
+        DrawerTestUtils.settle(mLayout);
+
+        assertEquals(HEIGHT, mBottom.getTop());
+        assertFalse(mLayout.isDrawerOpen(Gravity.BOTTOM));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void secondDrawerWithSameGravityIsRejected() {
+        // Already has a drawer without gravity, which means TOP.
+        final VerticalDrawerLayout layout =
+                DrawerTestUtils.createUnlaidOutLayout(RuntimeEnvironment.application);
+        layout.addView(new FrameLayout(RuntimeEnvironment.application),
+                new VerticalDrawerLayout.LayoutParams(
+                        VerticalDrawerLayout.LayoutParams.MATCH_PARENT, DRAWER_HEIGHT,
+                        Gravity.TOP));
+        layout.onFinishInflate();
+    }
+}
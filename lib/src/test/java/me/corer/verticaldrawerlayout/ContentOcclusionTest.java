@@ -0,0 +1,132 @@
+package me.corer.verticaldrawerlayout;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.HEIGHT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Moves drawers of different heights over the content and checks when the
+ * layout reports the content covered, that an opaque drawer hides it, and the
+ * listener calls for both directions.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ContentOcclusionTest {
+
+    /**
+     * Taller than the layout, so it covers the content once fully open.
+     */
+    private static final int TALL_DRAWER_HEIGHT = HEIGHT + 100;
+
+    private final List<String> mCalls = new ArrayList<>();
+    private VerticalDrawerLayout mLayout;
+    private View mContent;
+    private View mDrawer;
+
+    @Before
+    public void setUp() {
+        setUpLayout(TALL_DRAWER_HEIGHT);
+    }
+
+    private void setUpLayout(int drawerHeight) {
+        final Context context = RuntimeEnvironment.application;
+        mLayout = new VerticalDrawerLayout(context);
+        mLayout.addView(new View(context), new VerticalDrawerLayout.LayoutParams(
+                VerticalDrawerLayout.LayoutParams.MATCH_PARENT,
+                VerticalDrawerLayout.LayoutParams.MATCH_PARENT));
+        mLayout.addView(new FrameLayout(context), new VerticalDrawerLayout.LayoutParams(
+                VerticalDrawerLayout.LayoutParams.MATCH_PARENT, drawerHeight));
+        mLayout.onFinishInflate();
+        DrawerTestUtils.layoutPass(mLayout);
+        mContent = mLayout.mContentView;
+        mDrawer = mLayout.mDrawerView;
+
+        mCalls.clear();
+        mLayout.setContentOcclusionListener(new VerticalDrawerLayout.ContentOcclusionListener() {
+            @Override
+            public void onContentCovered(View contentView) {
+                mCalls.add("covered");
+            }
+
+            @Override
+            public void onContentUncovered(View contentView) {
+                mCalls.add("uncovered");
+            }
+        });
+    }
+
+    private void showTopDrawer(int showing) {
+        mLayout.moveDrawerTo(mDrawer, showing - mDrawer.getHeight());
+    }
+
+    @Test
+    public void tallDrawerCoversContentOnceItReachesTheBottom() {
+        showTopDrawer(HEIGHT - 1);
+        assertFalse(mLayout.isContentCovered());
+        assertTrue(mCalls.isEmpty());
+
+        showTopDrawer(HEIGHT);
+        assertTrue(mLayout.isContentCovered());
+
+        showTopDrawer(TALL_DRAWER_HEIGHT);
+        assertTrue(mLayout.isContentCovered());
+        assertEquals("[covered]", mCalls.toString());
+    }
+
+    @Test
+    public void movingBackUncoversContent() {
+        showTopDrawer(TALL_DRAWER_HEIGHT);
+        showTopDrawer(HEIGHT / 2);
+
+        assertFalse(mLayout.isContentCovered());
+        assertEquals("[covered, uncovered]", mCalls.toString());
+    }
+
+    @Test
+    public void matchParentDrawerLeavesContentShowing() {
+        setUpLayout(VerticalDrawerLayout.LayoutParams.MATCH_PARENT);
+        assertTrue(mDrawer.getHeight() < HEIGHT);
+
+        showTopDrawer(mDrawer.getHeight());
+
+        assertFalse(mLayout.isContentCovered());
+        assertTrue(mCalls.isEmpty());
+        assertEquals(View.VISIBLE, mContent.getVisibility());
+    }
+
+    @Test
+    public void translucentDrawerCoversWithoutHidingContent() {
+        showTopDrawer(TALL_DRAWER_HEIGHT);
+
+        assertTrue(mLayout.isContentCovered());
+        assertEquals(View.VISIBLE, mContent.getVisibility());
+    }
+
+    @Test
+    public void opaqueDrawerHidesContentUntilUncovered() {
+        mDrawer.setBackgroundColor(Color.WHITE);
+
+        showTopDrawer(TALL_DRAWER_HEIGHT);
+        assertEquals(View.INVISIBLE, mContent.getVisibility());
+
+        showTopDrawer(HEIGHT / 2);
+        assertEquals(View.VISIBLE, mContent.getVisibility());
+        assertEquals("[covered, uncovered]", mCalls.toString());
+    }
+}
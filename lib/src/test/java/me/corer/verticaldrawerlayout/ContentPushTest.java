@@ -0,0 +1,140 @@
+package me.corer.verticaldrawerlayout;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.view.Gravity;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.DRAWER_HEIGHT;
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.HEIGHT;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Moves drawers with content push enabled and checks the content's
+ * translation and scale, and that neither the slide nor a disabled scrim
+ * costs a measure or a fill.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ContentPushTest {
+
+    private VerticalDrawerLayout mLayout;
+    private View mContent;
+    private View mDrawer;
+
+    @Before
+    public void setUp() {
+        mLayout = DrawerTestUtils.createLayout(RuntimeEnvironment.application);
+        mContent = mLayout.mContentView;
+        mDrawer = mLayout.mDrawerView;
+    }
+
+    private void showTopDrawer(int showing) {
+        mLayout.moveDrawerTo(mDrawer, showing - DRAWER_HEIGHT);
+    }
+
+    @Test
+    public void contentStaysInPlaceByDefault() {
+        showTopDrawer(100);
+
+        assertEquals(0.f, mContent.getTranslationY(), 0.f);
+    }
+
+    @Test
+    public void fullPushFollowsTheDrawerEdge() {
+        mLayout.setContentPushFactor(1);
+        final int measured = mLayout.getChildMeasureCount();
+
+        showTopDrawer(100);
+
+        assertEquals(100.f, mContent.getTranslationY(), 0.f);
+        assertEquals(0, mContent.getTop());
+        assertEquals(measured, mLayout.getChildMeasureCount());
+    }
+
+    @Test
+    public void partialPushGivesParallax() {
+        mLayout.setContentPushFactor(0.5f);
+        showTopDrawer(100);
+
+        assertEquals(50.f, mContent.getTranslationY(), 0.f);
+    }
+
+    @Test
+    public void bottomDrawerPushesContentUp() {
+        mLayout = DrawerTestUtils.createLayoutWithBottomDrawer(RuntimeEnvironment.application);
+        mLayout.setContentPushFactor(1);
+        final View bottom = mLayout.findDrawerWithGravity(Gravity.BOTTOM);
+        mLayout.moveDrawerTo(bottom, HEIGHT - 100);
+
+        assertEquals(-100.f, mLayout.mContentView.getTranslationY(), 0.f);
+    }
+
+    @Test
+    public void scaleFollowsOffset() {
+        mLayout.setContentPushScale(0.9f);
+        showTopDrawer(DRAWER_HEIGHT / 2);
+
+        assertEquals(0.95f, mContent.getScaleX(), 0.001f);
+        assertEquals(0.95f, mContent.getScaleY(), 0.001f);
+        assertEquals(0.f, mContent.getTranslationY(), 0.f);
+    }
+
+    @Test
+    public void turningPushOffPutsContentBack() {
+        mLayout.setContentPushFactor(1);
+        mLayout.setContentPushScale(0.9f);
+        showTopDrawer(DRAWER_HEIGHT);
+
+        mLayout.setContentPushFactor(0);
+        mLayout.setContentPushScale(1);
+
+        assertEquals(0.f, mContent.getTranslationY(), 0.f);
+        assertEquals(1.f, mContent.getScaleX(), 0.f);
+    }
+
+    @Test
+    public void pushIsAppliedOnFirstLayout() {
+        final VerticalDrawerLayout layout =
+                DrawerTestUtils.createUnlaidOutLayout(RuntimeEnvironment.application);
+        layout.setContentPushFactor(1);
+        layout.openDrawerView();
+        DrawerTestUtils.layoutPass(layout);
+
+        assertEquals((float) DRAWER_HEIGHT, layout.mContentView.getTranslationY(), 0.f);
+    }
+
+    @Test
+    public void transparentScrimIsNotDrawn() {
+        final ColorCountingCanvas canvas = new ColorCountingCanvas();
+        showTopDrawer(100);
+
+        mLayout.drawChild(canvas, mContent, 0);
+        assertEquals(1, canvas.mColorFills);
+
+        mLayout.setScrimColor(Color.TRANSPARENT);
+        mLayout.drawChild(canvas, mContent, 0);
+        assertEquals(1, canvas.mColorFills);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void pushFactorOutsideRangeIsRejected() {
+        mLayout.setContentPushFactor(1.5f);
+    }
+
+    private static class ColorCountingCanvas extends Canvas {
+        int mColorFills;
+
+        @Override
+        public void drawColor(int color) {
+            mColorFills++;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package me.corer.verticaldrawerlayout;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
+import android.view.Gravity;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.DRAWER_HEIGHT;
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.HEIGHT;
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.WIDTH;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Moves drawers and checks the region the layout invalidates for the move:
+ * the band between the old and new edge, the shadow strip and, while it
+ * changes, the scrim.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class DirtyRegionTest {
+
+    private static final int SHADOW_HEIGHT = 12;
+
+    private VerticalDrawerLayout mLayout;
+    private View mDrawer;
+
+    @Before
+    public void setUp() {
+        mLayout = DrawerTestUtils.createLayout(RuntimeEnvironment.application);
+        mDrawer = mLayout.mDrawerView;
+    }
+
+    private void assertInvalidated(int top, int bottom) {
+        assertEquals(new Rect(0, top, WIDTH, bottom), mLayout.mInvalidRect);
+    }
+
+    @Test
+    public void dragStepInvalidatesOnlyTheBandWithoutScrim() {
+        mLayout.setScrimColor(Color.TRANSPARENT);
+
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT + 100);
+        assertInvalidated(0, 100);
+
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT + 150);
+        assertInvalidated(100, 150);
+
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT + 120);
+        assertInvalidated(120, 150);
+    }
+
+    @Test
+    public void bandIncludesShadowStrip() {
+        mLayout.setScrimColor(Color.TRANSPARENT);
+        mLayout.setDrawerShadow(new StripShadow());
+
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT + 100);
+        assertInvalidated(0, 100 + SHADOW_HEIGHT);
+    }
+
+    @Test
+    public void changingScrimInvalidatesVisibleContent() {
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT + 100);
+        assertInvalidated(0, HEIGHT);
+    }
+
+    @Test
+    public void opaqueDrawerLimitsScrimToContentBelowIt() {
+        mDrawer.setBackgroundColor(Color.WHITE);
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT + 100);
+
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT + 150);
+        assertInvalidated(100, HEIGHT);
+    }
+
+    @Test
+    public void bottomDrawerBandIsAboveItsEdge() {
+        mLayout = DrawerTestUtils.createLayoutWithBottomDrawer(RuntimeEnvironment.application);
+        mLayout.setScrimColor(Color.TRANSPARENT);
+        mLayout.setDrawerShadow(new StripShadow());
+        final View bottom = mLayout.findDrawerWithGravity(Gravity.BOTTOM);
+
+        mLayout.moveDrawerTo(bottom, HEIGHT - 100);
+        assertInvalidated(HEIGHT - 100 - SHADOW_HEIGHT, HEIGHT);
+    }
+
+    @Test
+    public void unchangedPositionInvalidatesNothing() {
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT + 100);
+        mLayout.mInvalidRect.setEmpty();
+
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT + 100);
+        assertTrue(mLayout.mInvalidRect.isEmpty());
+    }
+
+    @Test
+    public void settleInvalidatesRemainingTravel() {
+        mLayout.setScrimColor(Color.TRANSPARENT);
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT + 100);
+
+        mLayout.openDrawerTo(0.5f);
+        // A spring may pass the target, so the band runs to the open end.
+        assertInvalidated(100, DRAWER_HEIGHT);
+
+        mLayout.closeDrawer();
+        assertInvalidated(0, 100);
+    }
+
+    @Test
+    public void everyContinuingSettleFrameInvalidatesSomething() {
+        // No shadow strip, so the last frames of the spring, already rounded
+        // onto the target, have no band of their own.
+        mLayout.openDrawerView();
+        int frames = 0;
+        while (mLayout.getDrawerState() != VerticalDrawerLayout.STATE_IDLE && frames++ < 600) {
+            assertFalse("frame " + frames, mLayout.mInvalidRect.isEmpty());
+            mLayout.mInvalidRect.setEmpty();
+            SystemClock.sleep(DrawerTestUtils.FRAME_MS);
+            mLayout.computeScroll();
+        }
+
+        assertEquals(VerticalDrawerLayout.STATE_IDLE, mLayout.getDrawerState());
+        assertEquals(0, mDrawer.getTop());
+    }
+
+    private static class StripShadow extends Drawable {
+        @Override
+        public void draw(Canvas canvas) {
+        }
+
+        @Override
+        public int getIntrinsicHeight() {
+            return SHADOW_HEIGHT;
+        }
+
+        @Override
+        public void setAlpha(int alpha) {
+        }
+
+        @Override
+        public void setColorFilter(ColorFilter colorFilter) {
+        }
+
+        @Override
+        public int getOpacity() {
+            return PixelFormat.TRANSLUCENT;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package me.corer.verticaldrawerlayout;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.DRAWER_HEIGHT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays recorded touch streams through dispatchTouchEvent and checks where
+ * the drawer settles.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class DragGestureTest {
+
+    private static final int DOWN = MotionEvent.ACTION_DOWN;
+    private static final int MOVE = MotionEvent.ACTION_MOVE;
+    private static final int UP = MotionEvent.ACTION_UP;
+
+    /**
+     * Quick swipe down starting inside the top edge zone.
+     */
+    private static final int[][] EDGE_FLING_DOWN = {
+            {DOWN, 0, 240, 4},
+            {MOVE, 16, 240, 40},
+            {MOVE, 32, 240, 90},
+            {MOVE, 48, 240, 150},
+            {UP, 56, 240, 170},
+    };
+
+    /**
+     * Slow drag from the top edge that stops short of half the drawer height.
+     */
+    private static final int[][] EDGE_SHORT_DRAG = {
+            {DOWN, 0, 240, 4},
+            {MOVE, 100, 240, 40},
+            {MOVE, 300, 240, 80},
+            {MOVE, 500, 240, 120},
+            {MOVE, 900, 240, 120},
+            {UP, 1000, 240, 120},
+    };
+
+    /**
+     * Slow drag from the top edge past half the drawer height.
+     */
+    private static final int[][] EDGE_LONG_DRAG = {
+            {DOWN, 0, 240, 4},
+            {MOVE, 100, 240, 60},
+            {MOVE, 400, 240, 160},
+            {MOVE, 700, 240, 280},
+            {MOVE, 1100, 240, 280},
+            {UP, 1200, 240, 280},
+    };
+
+    /**
+     * Quick swipe up on an open drawer.
+     */
+    private static final int[][] DRAWER_FLING_UP = {
+            {DOWN, 0, 240, 350},
+            {MOVE, 16, 240, 320},
+            {MOVE, 32, 240, 260},
+            {MOVE, 48, 240, 190},
+            {UP, 56, 240, 170},
+    };
+
+    /**
+     * Swipe down that starts in the middle of the content, away from the edge.
+     */
+    private static final int[][] CONTENT_SWIPE_DOWN = {
+            {DOWN, 0, 240, 300},
+            {MOVE, 16, 240, 340},
+            {MOVE, 32, 240, 400},
+            {UP, 48, 240, 460},
+    };
+
+    private VerticalDrawerLayout mLayout;
+    private View mDrawer;
+
+    @Before
+    public void setUp() {
+        mLayout = DrawerTestUtils.createLayout(RuntimeEnvironment.application);
+        mDrawer = mLayout.mDrawerView;
+    }
+
+    @Test
+    public void edgeFlingDownOpensDrawer() {
+        DrawerTestUtils.replay(mLayout, EDGE_FLING_DOWN);
+        DrawerTestUtils.settle(mLayout);
+
+        assertTrue(mLayout.isDrawerOpen());
+        assertEquals(0, mDrawer.getTop());
+        assertEquals(1.f, mLayout.getDrawerViewOffset(mDrawer), 0.f);
+    }
+
+    @Test
+    public void slowShortDragSnapsBackClosed() {
+        DrawerTestUtils.replay(mLayout, EDGE_SHORT_DRAG);
+        DrawerTestUtils.settle(mLayout);
+
+        assertFalse(mLayout.isDrawerOpen());
+        assertEquals(-DRAWER_HEIGHT, mDrawer.getTop());
+        assertEquals(0.f, mLayout.getDrawerViewOffset(mDrawer), 0.f);
+    }
+
+    @Test
+    public void slowLongDragSnapsOpen() {
+        DrawerTestUtils.replay(mLayout, EDGE_LONG_DRAG);
+        DrawerTestUtils.settle(mLayout);
+
+        assertTrue(mLayout.isDrawerOpen());
+        assertEquals(0, mDrawer.getTop());
+    }
+
+    @Test
+    public void flingUpClosesOpenDrawer() {
+        mLayout.openDrawerView();
+        DrawerTestUtils.settle(mLayout);
+        assertTrue(mLayout.isDrawerOpen());
+
+        DrawerTestUtils.replay(mLayout, DRAWER_FLING_UP);
+        DrawerTestUtils.settle(mLayout);
+
+        assertFalse(mLayout.isDrawerOpen());
+        assertEquals(-DRAWER_HEIGHT, mDrawer.getTop());
+    }
+
+    @Test
+    public void dragIsClampedToDrawerHeight() {
+        mLayout.openDrawerView();
+        DrawerTestUtils.settle(mLayout);
+
+        DrawerTestUtils.replay(mLayout, new int[][]{
+                {DOWN, 0, 240, 200},
+                {MOVE, 100, 240, 260},
+                {MOVE, 200, 240, 400},
+                {MOVE, 300, 240, 600},
+        });
+
+        assertEquals(0, mDrawer.getTop());
+    }
+
+    @Test
+    public void swipeAwayFromEdgeDoesNotMoveDrawer() {
+        DrawerTestUtils.replay(mLayout, CONTENT_SWIPE_DOWN);
+        DrawerTestUtils.settle(mLayout);
+
+        assertFalse(mLayout.isDrawerOpen());
+        assertEquals(-DRAWER_HEIGHT, mDrawer.getTop());
+    }
+
+    @Test
+    public void dragMovesDrawerOnTheSameEvent() {
+        DrawerTestUtils.replay(mLayout, new int[][]{
+                {DOWN, 0, 240, 4},
+                {MOVE, 16, 240, 40},
+                {MOVE, 32, 240, 90},
+        });
+        final int topAfterMove = mDrawer.getTop();
+
+        // No frame has run, so the drawer must already have followed the
+        // finger synchronously inside dispatchTouchEvent.
+        assertTrue(topAfterMove > -DRAWER_HEIGHT);
+        assertEquals(VerticalDrawerLayout.STATE_DRAGGING,
+                mLayout.mDragHelper.getViewDragState());
+    }
+
+    @Test
+    public void translationModeSlidesWithoutMovingBounds() {
+        mLayout.setDrawerTranslationEnabled(true);
+        DrawerTestUtils.layoutPass(mLayout);
+        assertEquals(0, mDrawer.getTop());
+        assertEquals(-DRAWER_HEIGHT, mDrawer.getTranslationY(), 0.f);
+
+        DrawerTestUtils.replay(mLayout, EDGE_FLING_DOWN);
+        assertEquals(0, mDrawer.getTop());
+        DrawerTestUtils.settle(mLayout);
+
+        assertTrue(mLayout.isDrawerOpen());
+        assertEquals(0, mDrawer.getTop());
+        assertEquals(0.f, mDrawer.getTranslationY(), 0.f);
+    }
+
+    @Test
+    public void translationModeDoesNotCaptureHiddenDrawer() {
+        mLayout.setDrawerTranslationEnabled(true);
+        DrawerTestUtils.layoutPass(mLayout);
+
+        // The drawer's layout bounds cover y=150, but it is drawn off-screen.
+        DrawerTestUtils.replay(mLayout, new int[][]{
+                {DOWN, 0, 240, 150},
+                {MOVE, 16, 240, 200},
+                {MOVE, 32, 240, 260},
+                {UP, 48, 240, 300},
+        });
+        DrawerTestUtils.settle(mLayout);
+
+        assertFalse(mLayout.isDrawerOpen());
+        assertEquals(-DRAWER_HEIGHT, mDrawer.getTranslationY(), 0.f);
+        assertEquals(mLayout.mContentView, mLayout.findTopChildUnder(240, 150));
+    }
+
+    @Test
+    public void translationModeSwipeOverClickableContentLeavesHiddenDrawer() {
+        mLayout.setDrawerTranslationEnabled(true);
+        DrawerTestUtils.layoutPass(mLayout);
+        // The content takes the DOWN, so the moves reach onInterceptTouchEvent,
+        // where ViewDragHelper probes the drawer whose bounds are under the finger.
+        mLayout.mContentView.setClickable(true);
+
+        DrawerTestUtils.replay(mLayout, new int[][]{
+                {DOWN, 0, 240, 150},
+                {MOVE, 16, 240, 200},
+                {MOVE, 32, 240, 260},
+                {MOVE, 48, 240, 320},
+                {UP, 64, 240, 340},
+        });
+        DrawerTestUtils.settle(mLayout);
+
+        assertFalse(mLayout.isDrawerOpen());
+        assertEquals(0.f, mLayout.getDrawerViewOffset(mDrawer), 0.f);
+        assertEquals(-DRAWER_HEIGHT, mDrawer.getTranslationY(), 0.f);
+        assertEquals(0, mDrawer.getTop());
+    }
+
+    @Test
+    public void translationModeCapturesOpenDrawerOverClickableChild() {
+        mLayout.setDrawerTranslationEnabled(true);
+        DrawerTestUtils.layoutPass(mLayout);
+        mLayout.openDrawerView();
+        DrawerTestUtils.settle(mLayout);
+        // The drawer takes the DOWN, so the drag is only captured by intercepting.
+        mDrawer.setClickable(true);
+
+        DrawerTestUtils.replay(mLayout, new int[][]{
+                {DOWN, 0, 240, 300},
+                {MOVE, 16, 240, 260},
+                {MOVE, 32, 240, 180},
+                {MOVE, 48, 240, 100},
+                {UP, 56, 240, 80},
+        });
+        assertEquals(0, mDrawer.getTop());
+        assertTrue(mDrawer.getTranslationY() < 0);
+        DrawerTestUtils.settle(mLayout);
+
+        assertFalse(mLayout.isDrawerOpen());
+        assertEquals(0, mDrawer.getTop());
+        assertEquals(-DRAWER_HEIGHT, mDrawer.getTranslationY(), 0.f);
+    }
+}
@@ -0,0 +1,146 @@
+package me.corer.verticaldrawerlayout;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Rect;
+import android.view.Gravity;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.DRAWER_HEIGHT;
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.HEIGHT;
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.WIDTH;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the visible slice a drawer is clipped to, and which parts of a
+ * drawer are taken as opaque when clipping the content behind it, and that
+ * drawing the content looks at each drawer's children once.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class DrawerClipTest {
+
+    private VerticalDrawerLayout mLayout;
+    private FrameLayout mDrawer;
+    private final Rect mRect = new Rect();
+
+    @Before
+    public void setUp() {
+        mLayout = DrawerTestUtils.createLayout(RuntimeEnvironment.application);
+        mDrawer = (FrameLayout) mLayout.mDrawerView;
+    }
+
+    private View addOpaqueChild(int width, int height) {
+        final View child = new View(mLayout.getContext());
+        child.setBackgroundColor(Color.WHITE);
+        mDrawer.addView(child, new FrameLayout.LayoutParams(width, height));
+        DrawerTestUtils.layoutPass(mLayout);
+        return child;
+    }
+
+    @Test
+    public void closedDrawerHasNoVisibleSlice() {
+        assertFalse(mLayout.getDrawerVisibleRect(mDrawer, mRect));
+        assertTrue(mRect.isEmpty());
+    }
+
+    @Test
+    public void topDrawerShowsItsBottomSlice() {
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT + 100);
+
+        assertTrue(mLayout.getDrawerVisibleRect(mDrawer, mRect));
+        assertEquals(new Rect(0, DRAWER_HEIGHT - 100, WIDTH, DRAWER_HEIGHT), mRect);
+    }
+
+    @Test
+    public void bottomDrawerShowsItsTopSlice() {
+        mLayout = DrawerTestUtils.createLayoutWithBottomDrawer(RuntimeEnvironment.application);
+        final View bottom = mLayout.findDrawerWithGravity(Gravity.BOTTOM);
+        mLayout.moveDrawerTo(bottom, HEIGHT - 100);
+
+        assertTrue(mLayout.getDrawerVisibleRect(bottom, mRect));
+        assertEquals(new Rect(0, 0, WIDTH, 100), mRect);
+    }
+
+    @Test
+    public void transparentDrawerDoesNotClipContent() {
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT + 100);
+
+        assertFalse(mLayout.getDrawerOpaqueRect(mDrawer, mRect));
+        assertEquals(0, mLayout.getContentClipTop());
+    }
+
+    @Test
+    public void opaqueFullWidthChildClipsContent() {
+        addOpaqueChild(WIDTH, DRAWER_HEIGHT);
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT + 100);
+
+        assertEquals(100, mLayout.getContentClipTop());
+    }
+
+    @Test
+    public void narrowOpaqueChildIsCutOutInstead() {
+        addOpaqueChild(WIDTH / 2, DRAWER_HEIGHT);
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT + 100);
+
+        assertTrue(mLayout.getDrawerOpaqueRect(mDrawer, mRect));
+        assertEquals(new Rect(0, -DRAWER_HEIGHT + 100, WIDTH / 2, 100), mRect);
+        assertEquals(0, mLayout.getContentClipTop());
+    }
+
+    @Test
+    public void translucentDrawerIsNotOpaque() {
+        mDrawer.setBackgroundColor(Color.WHITE);
+        mDrawer.setAlpha(0.5f);
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT + 100);
+
+        assertEquals(0, mLayout.getContentClipTop());
+    }
+
+    @Test
+    public void contentDrawWalksDrawerChildrenOnce() {
+        final CountingView child = new CountingView(mLayout.getContext());
+        child.setBackgroundColor(Color.WHITE);
+        mDrawer.addView(child, new FrameLayout.LayoutParams(WIDTH / 2, DRAWER_HEIGHT));
+        DrawerTestUtils.layoutPass(mLayout);
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT + 100);
+        child.mMatrixCalls = 0;
+
+        final Canvas canvas = new Canvas(
+                Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+        mLayout.drawChild(canvas, mLayout.mContentView, 0);
+
+        assertEquals(1, child.mMatrixCalls);
+    }
+
+    /**
+     * Counts how often its matrix is asked for, which the opaque rect does
+     * once per walk over the drawer's children.
+     */
+    private static class CountingView extends View {
+        int mMatrixCalls;
+
+        CountingView(Context context) {
+            super(context);
+        }
+
+        @Override
+        public Matrix getMatrix() {
+            mMatrixCalls++;
+            return super.getMatrix();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package me.corer.verticaldrawerlayout;
+
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.DRAWER_HEIGHT;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Registers several drawer listeners, changes them while a slide is being
+ * dispatched, and checks who is told about which slide, including how
+ * setDrawerListener replaces only its own listener.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class DrawerListenerTest {
+
+    private VerticalDrawerLayout mLayout;
+    private View mDrawer;
+    private final List<String> mCalls = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        mLayout = DrawerTestUtils.createLayout(RuntimeEnvironment.application);
+        mDrawer = mLayout.mDrawerView;
+    }
+
+    private class Recorder extends VerticalDrawerLayout.SimpleDrawerListener {
+        final String mName;
+
+        Recorder(String name) {
+            mName = name;
+        }
+
+        @Override
+        public void onDrawerSlide(View drawerView, float slideOffset) {
+            mCalls.add(mName);
+        }
+    }
+
+    private void slide() {
+        mLayout.moveDrawerTo(mDrawer, mDrawer.getTop() + 10);
+    }
+
+    @Test
+    public void everyListenerIsCalledInTheOrderAdded() {
+        mLayout.addDrawerListener(new Recorder("a"));
+        mLayout.addDrawerListener(new Recorder("b"));
+        mLayout.addDrawerListener(new Recorder("c"));
+        slide();
+
+        assertEquals("[a, b, c]", mCalls.toString());
+    }
+
+    @Test
+    public void addingTwiceRegistersOnce() {
+        final Recorder a = new Recorder("a");
+        mLayout.addDrawerListener(a);
+        mLayout.addDrawerListener(a);
+        slide();
+
+        assertEquals("[a]", mCalls.toString());
+    }
+
+    @Test
+    public void removedListenerIsNotCalled() {
+        final Recorder a = new Recorder("a");
+        mLayout.addDrawerListener(a);
+        mLayout.addDrawerListener(new Recorder("b"));
+        mLayout.removeDrawerListener(a);
+        // Removing one that isn't registered does nothing.
+        mLayout.removeDrawerListener(new Recorder("x"));
+        slide();
+
+        assertEquals("[b]", mCalls.toString());
+    }
+
+    @Test
+    public void listenerAddedDuringDispatchWaitsForTheNextEvent() {
+        final Recorder late = new Recorder("late");
+        mLayout.addDrawerListener(new Recorder("a") {
+            @Override
+            public void onDrawerSlide(View drawerView, float slideOffset) {
+                super.onDrawerSlide(drawerView, slideOffset);
+                mLayout.addDrawerListener(late);
+            }
+        });
+        mLayout.addDrawerListener(new Recorder("b"));
+
+        slide();
+        assertEquals("[a, b]", mCalls.toString());
+
+        slide();
+        assertEquals("[a, b, a, b, late]", mCalls.toString());
+    }
+
+    @Test
+    public void listenerRemovedDuringDispatchStillGetsThatEvent() {
+        final Recorder b = new Recorder("b");
+        final Recorder a = new Recorder("a") {
+            @Override
+            public void onDrawerSlide(View drawerView, float slideOffset) {
+                super.onDrawerSlide(drawerView, slideOffset);
+                // Removes itself and the next one; neither is skipped this time.
+                mLayout.removeDrawerListener(this);
+                mLayout.removeDrawerListener(b);
+            }
+        };
+        mLayout.addDrawerListener(a);
+        mLayout.addDrawerListener(b);
+        mLayout.addDrawerListener(new Recorder("c"));
+
+        slide();
+        assertEquals("[a, b, c]", mCalls.toString());
+
+        slide();
+        assertEquals("[a, b, c, c]", mCalls.toString());
+    }
+
+    @Test
+    public void setDrawerListenerReplacesOnlyTheListenerItSet() {
+        mLayout.addDrawerListener(new Recorder("added"));
+        mLayout.setDrawerListener(new Recorder("first"));
+        mLayout.setDrawerListener(new Recorder("second"));
+        slide();
+
+        assertEquals("[added, second]", mCalls.toString());
+
+        mLayout.setDrawerListener(null);
+        slide();
+        assertEquals("[added, second, added]", mCalls.toString());
+    }
+
+    @Test
+    public void setListenerRemovedDirectlyIsNotRemovedAgain() {
+        final Recorder set = new Recorder("set");
+        mLayout.setDrawerListener(set);
+        mLayout.removeDrawerListener(set);
+        // Now only added, so a later setDrawerListener must leave it alone.
+        mLayout.addDrawerListener(set);
+        mLayout.setDrawerListener(new Recorder("other"));
+        slide();
+
+        assertEquals("[set, other]", mCalls.toString());
+        assertEquals(-DRAWER_HEIGHT + 10, mDrawer.getTop());
+    }
+}
@@ -0,0 +1,264 @@
+package me.corer.verticaldrawerlayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static me.corer.verticaldrawerlayout.VerticalDrawerLayout.STATE_DRAGGING;
+import static me.corer.verticaldrawerlayout.VerticalDrawerLayout.STATE_IDLE;
+import static me.corer.verticaldrawerlayout.VerticalDrawerLayout.STATE_SETTLING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Feeds DrawerMetrics state changes, moves and frame times directly and checks
+ * the histograms, dropped frame counts, touch latency and lifecycle. The main
+ * looper is paused, so the Choreographer never calls doFrame on its own.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class DrawerMetricsTest {
+
+    private static final long MS = 1000000;
+    /**
+     * One vsync at 60Hz.
+     */
+    private static final long VSYNC = 1000000000L / 60;
+    private static final long START = 1000 * MS;
+
+    private DrawerMetrics mMetrics;
+    private int mEnds;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+        mMetrics = new DrawerMetrics(60);
+        mMetrics.setCallback(new DrawerMetrics.Callback() {
+            @Override
+            public void onDrawerAnimationEnd(DrawerMetrics metrics) {
+                assertSame(mMetrics, metrics);
+                mEnds++;
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        mMetrics.stop();
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    /**
+     * A drag of {@code frames} frames, one vsync apart, released and settled
+     * over as many frames again.
+     */
+    private void dragAndSettle(int frames) {
+        mMetrics.onDrawerStateChanged(STATE_IDLE, STATE_DRAGGING);
+        long time = START;
+        for (int i = 0; i < frames; i++, time += VSYNC) {
+            mMetrics.doFrame(time);
+        }
+        mMetrics.onDrawerStateChanged(STATE_DRAGGING, STATE_SETTLING);
+        for (int i = 0; i < frames; i++, time += VSYNC) {
+            mMetrics.doFrame(time);
+        }
+        mMetrics.onDrawerStateChanged(STATE_SETTLING, STATE_IDLE);
+    }
+
+    @Test
+    public void histogramBucketsByInclusiveUpperBound() {
+        final DrawerMetrics.Histogram histogram = new DrawerMetrics.Histogram(new float[]{10, 20});
+        histogram.record(10 * MS);
+        histogram.record(10 * MS + 1);
+        histogram.record(20 * MS);
+        histogram.record(500 * MS);
+
+        assertEquals(3, histogram.getBucketCount());
+        assertEquals(1, histogram.getBucketValue(0));
+        assertEquals(2, histogram.getBucketValue(1));
+        assertEquals(1, histogram.getBucketValue(2));
+        assertEquals(Float.POSITIVE_INFINITY, histogram.getBucketUpperBoundMillis(2), 0.f);
+        assertEquals(4, histogram.getCount());
+        assertEquals(500 * MS, histogram.getMaxNanos());
+    }
+
+    @Test
+    public void percentileIsUpperBoundOfItsBucket() {
+        final DrawerMetrics.Histogram histogram = new DrawerMetrics.Histogram(new float[]{10, 20});
+        assertEquals(0.f, histogram.getPercentileMillis(50), 0.f);
+
+        for (int i = 0; i < 9; i++) {
+            histogram.record(5 * MS);
+        }
+        histogram.record(15 * MS);
+
+        assertEquals(10.f, histogram.getPercentileMillis(50), 0.f);
+        assertEquals(10.f, histogram.getPercentileMillis(90), 0.f);
+        assertEquals(20.f, histogram.getPercentileMillis(95), 0.f);
+        assertEquals(20.f, histogram.getPercentileMillis(100), 0.f);
+        assertEquals(6 * MS, histogram.getMeanNanos());
+
+        histogram.record(100 * MS);
+        assertEquals(Float.POSITIVE_INFINITY, histogram.getPercentileMillis(100), 0.f);
+    }
+
+    @Test
+    public void missedVsyncsCountAsDroppedFrames() {
+        mMetrics.onDrawerStateChanged(STATE_IDLE, STATE_DRAGGING);
+        mMetrics.doFrame(START);
+        mMetrics.doFrame(START + VSYNC);
+        // Jitter below half a vsync is not a drop.
+        mMetrics.doFrame(START + 2 * VSYNC + 4 * MS);
+        // Three vsyncs later: two were missed.
+        mMetrics.doFrame(START + 5 * VSYNC + 4 * MS);
+        mMetrics.onDrawerStateChanged(STATE_DRAGGING, STATE_IDLE);
+
+        assertEquals(4, mMetrics.getFrameCount());
+        assertEquals(2, mMetrics.getDroppedFrames());
+        assertEquals(2, mMetrics.getLastDroppedFrames());
+        assertEquals(3, mMetrics.getFrameIntervals().getCount());
+    }
+
+    @Test
+    public void framesOutsideAnAnimationAreIgnored() {
+        mMetrics.doFrame(START);
+        assertEquals(0, mMetrics.getFrameCount());
+
+        dragAndSettle(3);
+        mMetrics.doFrame(START + 100 * VSYNC);
+
+        assertEquals(6, mMetrics.getFrameCount());
+        assertEquals(0, mMetrics.getDroppedFrames());
+    }
+
+    @Test
+    public void finishCountsAnimationAndCallsBack() {
+        dragAndSettle(3);
+
+        assertEquals(1, mMetrics.getAnimationCount());
+        assertEquals(1, mEnds);
+        assertEquals(1, mMetrics.getSettleDuration().getCount());
+
+        // A second animation keeps the totals and starts the last values over.
+        mMetrics.onDrawerStateChanged(STATE_IDLE, STATE_DRAGGING);
+        mMetrics.doFrame(START);
+        mMetrics.onDrawerStateChanged(STATE_DRAGGING, STATE_IDLE);
+
+        assertEquals(2, mMetrics.getAnimationCount());
+        assertEquals(2, mEnds);
+        assertEquals(7, mMetrics.getFrameCount());
+        assertEquals(1, mMetrics.getLastFrameCount());
+        // That one ended without settling.
+        assertEquals(-1, mMetrics.getLastSettleNanos());
+        assertEquals(1, mMetrics.getSettleDuration().getCount());
+    }
+
+    @Test
+    public void stoppedMetricsDoNotFinish() {
+        mMetrics.onDrawerStateChanged(STATE_IDLE, STATE_DRAGGING);
+        mMetrics.doFrame(START);
+        mMetrics.stop();
+        mMetrics.doFrame(START + VSYNC);
+        mMetrics.onDrawerStateChanged(STATE_DRAGGING, STATE_IDLE);
+
+        assertEquals(1, mMetrics.getFrameCount());
+        assertEquals(0, mMetrics.getAnimationCount());
+        assertEquals(0, mEnds);
+    }
+
+    @Test
+    public void resetClearsEverything() {
+        mMetrics.onDrawerStateChanged(STATE_IDLE, STATE_DRAGGING);
+        mMetrics.onDrawerMoved(START / MS);
+        mMetrics.doFrame(START);
+        mMetrics.doFrame(START + 3 * VSYNC);
+        mMetrics.onDrawerStateChanged(STATE_DRAGGING, STATE_IDLE);
+
+        mMetrics.reset();
+
+        assertEquals(0, mMetrics.getAnimationCount());
+        assertEquals(0, mMetrics.getFrameCount());
+        assertEquals(0, mMetrics.getDroppedFrames());
+        assertEquals(0, mMetrics.getLastFrameCount());
+        assertEquals(0, mMetrics.getLastDroppedFrames());
+        assertEquals(-1, mMetrics.getLastTouchLatencyNanos());
+        assertEquals(-1, mMetrics.getLastSettleNanos());
+        assertEquals(0, mMetrics.getFrameIntervals().getCount());
+        assertEquals(0, mMetrics.getTouchLatency().getCount());
+        assertEquals(0, mMetrics.getFrameIntervals().getBucketValue(0));
+        assertEquals(0, mMetrics.getFrameIntervals().getMaxNanos());
+    }
+
+    @Test
+    public void snapshotIsIndependentCopy() {
+        mMetrics.setRefreshRate(90);
+        dragAndSettle(3);
+
+        final DrawerMetrics copy = mMetrics.snapshot();
+        dragAndSettle(2);
+
+        assertNotSame(mMetrics, copy);
+        assertEquals(90.f, copy.getRefreshRate(), 0.01f);
+        assertEquals(1, copy.getAnimationCount());
+        assertEquals(6, copy.getFrameCount());
+        assertEquals(5, copy.getFrameIntervals().getCount());
+        assertEquals(2, mMetrics.getAnimationCount());
+
+        mMetrics.copyTo(copy);
+        assertEquals(2, copy.getAnimationCount());
+        assertEquals(10, copy.getFrameCount());
+        assertEquals(mMetrics.getFrameIntervals().getBucketValue(1),
+                copy.getFrameIntervals().getBucketValue(1));
+    }
+
+    @Test
+    public void touchLatencyIsFirstMoveToStartOfNextFrame() {
+        mMetrics.onDrawerStateChanged(STATE_IDLE, STATE_DRAGGING);
+        mMetrics.onDrawerMoved(START / MS - 12);
+        // Later moves in the same drag don't restart the measurement.
+        mMetrics.onDrawerMoved(START / MS - 4);
+        mMetrics.doFrame(START);
+        mMetrics.onDrawerMoved(START / MS + 2);
+        mMetrics.doFrame(START + VSYNC);
+        mMetrics.onDrawerStateChanged(STATE_DRAGGING, STATE_IDLE);
+
+        assertEquals(12 * MS, mMetrics.getLastTouchLatencyNanos());
+        assertEquals(1, mMetrics.getTouchLatency().getCount());
+    }
+
+    @Test
+    public void movesWithoutTouchRecordNoLatency() {
+        mMetrics.onDrawerStateChanged(STATE_IDLE, STATE_SETTLING);
+        mMetrics.onDrawerMoved(-1);
+        mMetrics.doFrame(START);
+        mMetrics.onDrawerStateChanged(STATE_SETTLING, STATE_IDLE);
+
+        assertEquals(-1, mMetrics.getLastTouchLatencyNanos());
+        assertEquals(0, mMetrics.getTouchLatency().getCount());
+    }
+
+    @Test
+    public void movesBeforeTheAnimationStartsAreIgnored() {
+        mMetrics.onDrawerMoved(START / MS - 12);
+        mMetrics.onDrawerStateChanged(STATE_IDLE, STATE_DRAGGING);
+        mMetrics.doFrame(START);
+        mMetrics.onDrawerStateChanged(STATE_DRAGGING, STATE_IDLE);
+
+        assertEquals(-1, mMetrics.getLastTouchLatencyNanos());
+    }
+
+    @Test
+    public void touchAfterFrameTimeCountsAsNoLatency() {
+        mMetrics.onDrawerStateChanged(STATE_IDLE, STATE_DRAGGING);
+        mMetrics.onDrawerMoved(START / MS + 3);
+        mMetrics.doFrame(START);
+        mMetrics.onDrawerStateChanged(STATE_DRAGGING, STATE_IDLE);
+
+        assertEquals(0, mMetrics.getLastTouchLatencyNanos());
+    }
+}
@@ -0,0 +1,152 @@
+package me.corer.verticaldrawerlayout;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.PixelFormat;
+import android.graphics.drawable.Drawable;
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.DRAWER_HEIGHT;
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.HEIGHT;
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.WIDTH;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks the elevation shadow on API 21 and the rasterized strip used for a
+ * shadow drawable.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class DrawerShadowTest {
+
+    private static final int SHADOW_HEIGHT = 12;
+
+    private VerticalDrawerLayout mLayout;
+    private View mDrawer;
+    private Canvas mCanvas;
+    private CountingShadow mShadow;
+
+    @Before
+    public void setUp() {
+        mLayout = DrawerTestUtils.createLayout(RuntimeEnvironment.application);
+        mDrawer = mLayout.mDrawerView;
+        mCanvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+        mShadow = new CountingShadow();
+    }
+
+    private void drawFrame() {
+        mLayout.drawChild(mCanvas, mDrawer, 0);
+    }
+
+    @Test
+    public void stripIsRasterizedOnceAtShadowHeight() {
+        mLayout.setDrawerShadow(mShadow);
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT / 2);
+        drawFrame();
+        final Bitmap strip = mLayout.mShadowStrip;
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT / 4);
+        drawFrame();
+
+        assertSame(strip, mLayout.mShadowStrip);
+        assertEquals(WIDTH, strip.getWidth());
+        assertEquals(SHADOW_HEIGHT, strip.getHeight());
+        assertEquals(1, mShadow.draws);
+    }
+
+    @Test
+    public void closedDrawerDrawsNoShadow() {
+        mLayout.setDrawerShadow(mShadow);
+        drawFrame();
+
+        assertNull(mLayout.mShadowStrip);
+        assertEquals(0, mShadow.draws);
+    }
+
+    @Test
+    public void newShadowIsRasterizedAgain() {
+        mLayout.setDrawerShadow(mShadow);
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT / 2);
+        drawFrame();
+        final Bitmap strip = mLayout.mShadowStrip;
+
+        final CountingShadow other = new CountingShadow();
+        mLayout.setDrawerShadow(other);
+        drawFrame();
+
+        assertNotSame(strip, mLayout.mShadowStrip);
+        assertEquals(1, other.draws);
+    }
+
+    @Test
+    public void elevationReplacesDrawableShadow() {
+        mLayout.setDrawerShadow(mShadow);
+        mLayout.setDrawerElevation(16);
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT / 2);
+        drawFrame();
+
+        assertNull(mLayout.mShadowStrip);
+        assertEquals(16, ViewCompat.getElevation(mDrawer), 0);
+    }
+
+    @Test
+    public void closedDrawerHasNoElevation() {
+        mLayout.setDrawerElevation(16);
+        assertEquals(0, ViewCompat.getElevation(mDrawer), 0);
+
+        mLayout.openDrawerView();
+        DrawerTestUtils.settle(mLayout);
+        assertEquals(16, ViewCompat.getElevation(mDrawer), 0);
+
+        mLayout.closeDrawer();
+        DrawerTestUtils.settle(mLayout);
+        assertEquals(0, ViewCompat.getElevation(mDrawer), 0);
+    }
+
+    @Test
+    public void clearingElevationTakesItBack() {
+        mLayout.setDrawerElevation(16);
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT / 2);
+        mLayout.setDrawerElevation(0);
+
+        assertEquals(0, ViewCompat.getElevation(mDrawer), 0);
+    }
+
+    private static class CountingShadow extends Drawable {
+        int draws;
+
+        @Override
+        public void draw(Canvas canvas) {
+            draws++;
+        }
+
+        @Override
+        public int getIntrinsicHeight() {
+            return SHADOW_HEIGHT;
+        }
+
+        @Override
+        public void setAlpha(int alpha) {
+        }
+
+        @Override
+        public void setColorFilter(ColorFilter colorFilter) {
+        }
+
+        @Override
+        public int getOpacity() {
+            return PixelFormat.TRANSLUCENT;
+        }
+    }
+}
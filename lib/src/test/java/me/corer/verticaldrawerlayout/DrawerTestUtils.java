@@ -0,0 +1,120 @@
+package me.corer.verticaldrawerlayout;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.view.Gravity;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+/**
+ * Helpers shared by the VerticalDrawerLayout JVM tests: builds a laid out
+ * layout without inflation, replays recorded touch streams and pumps
+ * computeScroll until the drawer settles.
+ */
+final class DrawerTestUtils {
+
+    static final int WIDTH = 480;
+    static final int HEIGHT = 800;
+    static final int DRAWER_HEIGHT = 400;
+
+    /**
+     * One frame at 60Hz, used as the clock step while settling.
+     */
+    static final long FRAME_MS = 16;
+
+    private static final int MAX_SETTLE_FRAMES = 600;
+
+    private DrawerTestUtils() {
+    }
+
+    static VerticalDrawerLayout createLayout(Context context) {
+        final VerticalDrawerLayout layout = createUnlaidOutLayout(context);
+        layoutPass(layout);
+        return layout;
+    }
+
+    /**
+     * Like {@link #createLayout(Context)}, but stops before the first layout pass.
+     */
+    static VerticalDrawerLayout createUnlaidOutLayout(Context context) {
+        return addChildren(new VerticalDrawerLayout(context));
+    }
+
+    /**
+     * Adds the content and drawer children to a layout, for tests that need a
+     * subclass of it.
+     */
+    static VerticalDrawerLayout addChildren(VerticalDrawerLayout layout) {
+        addContentAndDrawer(layout);
+        layout.onFinishInflate();
+        return layout;
+    }
+
+    /**
+     * Adds the content and top drawer without finishing inflation, so more
+     * children can go in first.
+     */
+    private static void addContentAndDrawer(VerticalDrawerLayout layout) {
+        final Context context = layout.getContext();
+        final View content = new View(context);
+        final FrameLayout drawer = new FrameLayout(context);
+        layout.addView(content, new VerticalDrawerLayout.LayoutParams(
+                VerticalDrawerLayout.LayoutParams.MATCH_PARENT,
+                VerticalDrawerLayout.LayoutParams.MATCH_PARENT));
+        layout.addView(drawer, new VerticalDrawerLayout.LayoutParams(
+                VerticalDrawerLayout.LayoutParams.MATCH_PARENT, DRAWER_HEIGHT));
+    }
+
+    /**
+     * Like {@link #createLayout(Context)}, with a second drawer of the same
+     * height along the bottom edge.
+     */
+    static VerticalDrawerLayout createLayoutWithBottomDrawer(Context context) {
+        final VerticalDrawerLayout layout = new VerticalDrawerLayout(context);
+        addContentAndDrawer(layout);
+        layout.addView(new FrameLayout(context), new VerticalDrawerLayout.LayoutParams(
+                VerticalDrawerLayout.LayoutParams.MATCH_PARENT, DRAWER_HEIGHT, Gravity.BOTTOM));
+        // Inflation finishes once, with every child in place.
+        layout.onFinishInflate();
+        layoutPass(layout);
+        return layout;
+    }
+
+    static void layoutPass(VerticalDrawerLayout layout) {
+        layout.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        layout.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    /**
+     * Replays a recorded gesture. Each row is {action, eventTimeMs, x, y}, with
+     * times relative to the ACTION_DOWN of the gesture.
+     */
+    static void replay(VerticalDrawerLayout layout, int[][] gesture) {
+        final long downTime = SystemClock.uptimeMillis();
+        for (int[] sample : gesture) {
+            final MotionEvent ev = MotionEvent.obtain(downTime, downTime + sample[1],
+                    sample[0], sample[2], sample[3], 0);
+            layout.dispatchTouchEvent(ev);
+            ev.recycle();
+        }
+        // Move the clock past the gesture so the settle starts after it.
+        SystemClock.sleep(gesture[gesture.length - 1][1]);
+    }
+
+    /**
+     * Steps the clock one frame at a time and drives computeScroll until the
+     * drawer is idle again. Returns the number of frames it took.
+     */
+    static int settle(VerticalDrawerLayout layout) {
+        int frames = 0;
+        while (layout.getDrawerState() != VerticalDrawerLayout.STATE_IDLE
+                && frames < MAX_SETTLE_FRAMES) {
+            SystemClock.sleep(FRAME_MS);
+            layout.computeScroll();
+            frames++;
+        }
+        return frames;
+    }
+}
@@ -0,0 +1,114 @@
+package me.corer.verticaldrawerlayout;
+
+import android.os.SystemClock;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Posts work with postWhenIdle while the drawer is idle, dragged and
+ * settling, and checks when it runs. The layout isn't attached, so each frame
+ * is simulated by running the queue directly.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class IdleWorkTest {
+
+    private VerticalDrawerLayout mLayout;
+    private final List<Integer> mRan = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        mLayout = DrawerTestUtils.createLayout(RuntimeEnvironment.application);
+    }
+
+    private Runnable record(final int id, final long durationMs) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                mRan.add(id);
+                SystemClock.sleep(durationMs);
+            }
+        };
+    }
+
+    private void frame() {
+        mLayout.mIdleWork.run();
+    }
+
+    @Test
+    public void runsInOrderWhenIdle() {
+        mLayout.postWhenIdle(record(1, 0));
+        mLayout.postWhenIdle(record(2, 0));
+        frame();
+
+        assertEquals(2, mRan.size());
+        assertEquals(1, (int) mRan.get(0));
+        assertEquals(2, (int) mRan.get(1));
+    }
+
+    @Test
+    public void waitsForSettleToFinish() {
+        mLayout.openDrawerView();
+        mLayout.postWhenIdle(record(1, 0));
+        frame();
+        assertEquals(0, mRan.size());
+
+        DrawerTestUtils.settle(mLayout);
+        frame();
+        assertEquals(1, mRan.size());
+    }
+
+    @Test
+    public void batchStopsAtFrameBudget() {
+        for (int i = 0; i < 5; i++) {
+            mLayout.postWhenIdle(record(i, 3));
+        }
+
+        frame();
+        assertEquals(2, mRan.size());
+        frame();
+        assertEquals(4, mRan.size());
+        frame();
+        assertEquals(5, mRan.size());
+    }
+
+    @Test
+    public void motionStartedByWorkPostponesTheRest() {
+        mLayout.postWhenIdle(new Runnable() {
+            @Override
+            public void run() {
+                mLayout.openDrawerView();
+            }
+        });
+        mLayout.postWhenIdle(record(1, 0));
+
+        frame();
+        assertEquals(0, mRan.size());
+        assertEquals(1, mLayout.mIdleWork.size());
+
+        DrawerTestUtils.settle(mLayout);
+        frame();
+        assertEquals(1, mRan.size());
+    }
+
+    @Test
+    public void removedWorkDoesNotRun() {
+        final Runnable work = record(1, 0);
+        mLayout.postWhenIdle(work);
+        mLayout.postWhenIdle(work);
+        mLayout.removeIdleCallbacks(work);
+        frame();
+
+        assertEquals(0, mRan.size());
+    }
+}
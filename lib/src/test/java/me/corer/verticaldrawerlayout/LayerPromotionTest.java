@@ -0,0 +1,182 @@
+package me.corer.verticaldrawerlayout;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.DRAWER_HEIGHT;
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.HEIGHT;
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.WIDTH;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Moves the drawer with layer promotion on and checks which views are on a
+ * hardware layer during the motion and after it, and that a drawer redrawing
+ * itself on every frame gives its layer up. Robolectric doesn't render with
+ * hardware acceleration, so the layout claims it does.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class LayerPromotionTest {
+
+    private VerticalDrawerLayout mLayout;
+    private View mContent;
+    private DirtyDrawer mDrawer;
+    private Canvas mCanvas;
+
+    @Before
+    public void setUp() {
+        final Context context = RuntimeEnvironment.application;
+        mLayout = new VerticalDrawerLayout(context) {
+            @Override
+            public boolean isHardwareAccelerated() {
+                return true;
+            }
+        };
+        mContent = new View(context);
+        mDrawer = new DirtyDrawer(context);
+        mLayout.addView(mContent, new VerticalDrawerLayout.LayoutParams(
+                VerticalDrawerLayout.LayoutParams.MATCH_PARENT,
+                VerticalDrawerLayout.LayoutParams.MATCH_PARENT));
+        mLayout.addView(mDrawer, new VerticalDrawerLayout.LayoutParams(
+                VerticalDrawerLayout.LayoutParams.MATCH_PARENT, DRAWER_HEIGHT));
+        mLayout.onFinishInflate();
+        DrawerTestUtils.layoutPass(mLayout);
+        mLayout.setDrawerLayerPromotionEnabled(true);
+        mCanvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+    }
+
+    private void drawDrawerFrame() {
+        mLayout.drawChild(mCanvas, mDrawer, 0);
+    }
+
+    @Test
+    public void settlePromotesDrawerAndScrimmedContent() {
+        mLayout.openDrawerView();
+
+        assertEquals(View.LAYER_TYPE_HARDWARE, mDrawer.getLayerType());
+        assertEquals(View.LAYER_TYPE_HARDWARE, mContent.getLayerType());
+    }
+
+    @Test
+    public void dragPromotesAndIdleRestores() {
+        mLayout.mDragHelper.captureChildView(mDrawer, 0);
+        assertEquals(VerticalDrawerLayout.STATE_DRAGGING, mLayout.getDrawerState());
+        assertEquals(View.LAYER_TYPE_HARDWARE, mDrawer.getLayerType());
+
+        mLayout.mDragHelper.abort();
+        assertEquals(VerticalDrawerLayout.STATE_IDLE, mLayout.getDrawerState());
+        assertEquals(View.LAYER_TYPE_NONE, mDrawer.getLayerType());
+        assertEquals(View.LAYER_TYPE_NONE, mContent.getLayerType());
+    }
+
+    @Test
+    public void layersAreRestoredOnceSettled() {
+        mLayout.openDrawerView();
+        DrawerTestUtils.settle(mLayout);
+
+        assertEquals(View.LAYER_TYPE_NONE, mDrawer.getLayerType());
+        assertEquals(View.LAYER_TYPE_NONE, mContent.getLayerType());
+    }
+
+    @Test
+    public void contentWithoutScrimIsNotPromoted() {
+        mLayout.setScrimColor(0);
+        mLayout.openDrawerView();
+
+        assertEquals(View.LAYER_TYPE_HARDWARE, mDrawer.getLayerType());
+        assertEquals(View.LAYER_TYPE_NONE, mContent.getLayerType());
+    }
+
+    @Test
+    public void layerTypesSetByTheAppAreLeftAlone() {
+        mDrawer.setLayerType(View.LAYER_TYPE_SOFTWARE, null);
+        mContent.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+
+        mLayout.openDrawerView();
+        assertEquals(View.LAYER_TYPE_SOFTWARE, mDrawer.getLayerType());
+
+        DrawerTestUtils.settle(mLayout);
+        assertEquals(View.LAYER_TYPE_SOFTWARE, mDrawer.getLayerType());
+        assertEquals(View.LAYER_TYPE_HARDWARE, mContent.getLayerType());
+    }
+
+    @Test
+    public void nothingIsPromotedWithPromotionOff() {
+        mLayout.setDrawerLayerPromotionEnabled(false);
+        mLayout.openDrawerView();
+
+        assertEquals(View.LAYER_TYPE_NONE, mDrawer.getLayerType());
+        assertEquals(View.LAYER_TYPE_NONE, mContent.getLayerType());
+    }
+
+    @Test
+    public void cleanDrawerKeepsItsLayer() {
+        mLayout.openDrawerView();
+        for (int i = 0; i < 5; i++) {
+            drawDrawerFrame();
+        }
+
+        assertEquals(View.LAYER_TYPE_HARDWARE, mDrawer.getLayerType());
+    }
+
+    @Test
+    public void drawerDirtyEveryFrameFallsBackToNoLayer() {
+        mLayout.openDrawerView();
+        mDrawer.mDirty = true;
+
+        // The frame that builds the layer and one more are allowed.
+        drawDrawerFrame();
+        drawDrawerFrame();
+        assertEquals(View.LAYER_TYPE_HARDWARE, mDrawer.getLayerType());
+
+        drawDrawerFrame();
+        assertEquals(View.LAYER_TYPE_NONE, mDrawer.getLayerType());
+        // The content keeps its layer; it is still static under the scrim.
+        assertEquals(View.LAYER_TYPE_HARDWARE, mContent.getLayerType());
+
+        DrawerTestUtils.settle(mLayout);
+        assertEquals(View.LAYER_TYPE_NONE, mDrawer.getLayerType());
+        assertEquals(View.LAYER_TYPE_NONE, mContent.getLayerType());
+    }
+
+    @Test
+    public void nextMotionPromotesAgainAfterFallback() {
+        mLayout.openDrawerView();
+        mDrawer.mDirty = true;
+        for (int i = 0; i < 3; i++) {
+            drawDrawerFrame();
+        }
+        DrawerTestUtils.settle(mLayout);
+        mDrawer.mDirty = false;
+
+        mLayout.closeDrawer();
+        assertEquals(View.LAYER_TYPE_HARDWARE, mDrawer.getLayerType());
+    }
+
+    /**
+     * A drawer that can claim to need redrawing, as one with animating
+     * content does on every frame.
+     */
+    private static class DirtyDrawer extends FrameLayout {
+        boolean mDirty;
+
+        DirtyDrawer(Context context) {
+            super(context);
+        }
+
+        @Override
+        public boolean isDirty() {
+            return mDirty;
+        }
+    }
+}
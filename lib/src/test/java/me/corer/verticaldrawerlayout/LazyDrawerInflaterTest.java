@@ -0,0 +1,211 @@
+package me.corer.verticaldrawerlayout;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.AttributeSet;
+import android.view.LayoutInflater;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Sets a lazy drawer layout and checks on which thread it is inflated, for an
+ * open before anything started it, an edge touch and a background inflation
+ * that throws. Inflation on both threads goes through a recording
+ * LayoutInflater, so no layout resource is needed. The main looper is
+ * paused, so what the background thread posts only runs when the test lets
+ * it. Also checks that the background thread inflates without factories.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class LazyDrawerInflaterTest {
+
+    /**
+     * Any id; the recording inflater doesn't look it up.
+     */
+    private static final int LAYOUT = 1;
+
+    private static final long TIMEOUT_MS = 5000;
+
+    private RecordingInflater mInflater;
+    private VerticalDrawerLayout mLayout;
+    private ViewGroup mPlaceholder;
+
+    @Before
+    public void setUp() {
+        final InflaterContext context = new InflaterContext(RuntimeEnvironment.application);
+        mInflater = context.mInflater;
+        mLayout = DrawerTestUtils.createLayout(context);
+        mPlaceholder = (ViewGroup) mLayout.mDrawerView;
+        mLayout.setLazyDrawerLayout(LAYOUT);
+        mLayout.mLazyInflater.mBackgroundInflater = mInflater;
+        ShadowLooper.pauseMainLooper();
+    }
+
+    @After
+    public void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void openBeforeAnythingStartedInflatesOnMainThread() {
+        assertFalse(mLayout.isDrawerInflated());
+        assertTrue(mInflater.threads().isEmpty());
+
+        mLayout.openDrawerView();
+
+        assertTrue(mLayout.isDrawerInflated());
+        assertEquals("[main]", mInflater.threads().toString());
+        assertEquals(1, mPlaceholder.getChildCount());
+        assertSame(mInflater.lastInflated(), mPlaceholder.getChildAt(0));
+    }
+
+    @Test
+    public void edgeTouchDownStartsBackgroundInflation() throws InterruptedException {
+        final MotionEvent down = MotionEvent.obtain(SystemClock.uptimeMillis(),
+                SystemClock.uptimeMillis(), MotionEvent.ACTION_DOWN, 100, 2, 0);
+        mLayout.onInterceptTouchEvent(down);
+        down.recycle();
+
+        assertTrue(mInflater.mInflated.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertEquals("[background]", mInflater.threads().toString());
+
+        // The background thread hands the views over on the main thread.
+        final long deadline = SystemClock.elapsedRealtime() + TIMEOUT_MS;
+        while (!mLayout.isDrawerInflated() && SystemClock.elapsedRealtime() < deadline) {
+            ShadowLooper.runUiThreadTasks();
+            Thread.sleep(1);
+        }
+        assertTrue(mLayout.isDrawerInflated());
+        assertSame(mInflater.lastInflated(), mPlaceholder.getChildAt(0));
+
+        // Opening now uses what was inflated and doesn't inflate again.
+        mLayout.openDrawerView();
+        assertEquals("[background]", mInflater.threads().toString());
+        assertEquals(1, mPlaceholder.getChildCount());
+    }
+
+    @Test
+    public void failedBackgroundInflationFallsBackToMainThread() throws InterruptedException {
+        mInflater.mFailOffMainThread = true;
+        mLayout.prepareToOpen();
+        assertTrue(mInflater.mInflated.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        // Waits for the background thread, then inflates again itself.
+        mLayout.openDrawerView();
+
+        assertTrue(mLayout.isDrawerInflated());
+        assertEquals("[background, main]", mInflater.threads().toString());
+        assertEquals(1, mPlaceholder.getChildCount());
+        assertSame(mInflater.lastInflated(), mPlaceholder.getChildAt(0));
+    }
+
+    @Test
+    public void backgroundInflaterLeavesOutTheContextFactory() {
+        final InflaterContext context = new InflaterContext(RuntimeEnvironment.application);
+        context.mInflater.setFactory2(new LayoutInflater.Factory2() {
+            @Override
+            public View onCreateView(View parent, String name, Context context,
+                    AttributeSet attrs) {
+                return null;
+            }
+
+            @Override
+            public View onCreateView(String name, Context context, AttributeSet attrs) {
+                return null;
+            }
+        });
+        final LazyDrawerInflater inflater = new LazyDrawerInflater(new FrameLayout(context),
+                LAYOUT, null);
+
+        assertNull(inflater.mBackgroundInflater.getFactory());
+        assertNull(inflater.mBackgroundInflater.getFactory2());
+    }
+
+    private static class InflaterContext extends ContextWrapper {
+        final RecordingInflater mInflater;
+
+        InflaterContext(Context base) {
+            super(base);
+            mInflater = new RecordingInflater(this);
+        }
+
+        @Override
+        public Object getSystemService(String name) {
+            if (LAYOUT_INFLATER_SERVICE.equals(name)) {
+                return mInflater;
+            }
+            return super.getSystemService(name);
+        }
+    }
+
+    /**
+     * Inflates a plain View for any layout and records the thread it ran on.
+     */
+    private static class RecordingInflater extends LayoutInflater {
+        final CountDownLatch mInflated = new CountDownLatch(1);
+        volatile boolean mFailOffMainThread;
+        private final List<String> mThreads = new ArrayList<>();
+        private View mLastInflated;
+
+        RecordingInflater(Context context) {
+            super(context);
+        }
+
+        @Override
+        public LayoutInflater cloneInContext(Context newContext) {
+            return this;
+        }
+
+        @Override
+        public View inflate(int resource, ViewGroup root, boolean attachToRoot) {
+            final boolean onMain = Looper.myLooper() == Looper.getMainLooper();
+            try {
+                synchronized (this) {
+                    mThreads.add(onMain ? "main" : "background");
+                }
+                if (!onMain && mFailOffMainThread) {
+                    throw new IllegalStateException("Inflation failed");
+                }
+                final View view = new View(getContext());
+                synchronized (this) {
+                    mLastInflated = view;
+                }
+                return view;
+            } finally {
+                mInflated.countDown();
+            }
+        }
+
+        synchronized List<String> threads() {
+            return new ArrayList<>(mThreads);
+        }
+
+        synchronized View lastInflated() {
+            return mLastInflated;
+        }
+    }
+}
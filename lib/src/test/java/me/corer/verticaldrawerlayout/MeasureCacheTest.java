@@ -0,0 +1,92 @@
+package me.corer.verticaldrawerlayout;
+
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.HEIGHT;
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.WIDTH;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks which children onMeasure measures again. onMeasure is called
+ * directly, since View#measure would skip it altogether for unchanged specs.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class MeasureCacheTest {
+
+    private VerticalDrawerLayout mLayout;
+    private int mWidthSpec;
+    private int mHeightSpec;
+    private int mMeasured;
+    private int mSkipped;
+
+    @Before
+    public void setUp() {
+        mLayout = DrawerTestUtils.createLayout(RuntimeEnvironment.application);
+        mWidthSpec = View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY);
+        mHeightSpec = View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY);
+        takeCounts();
+    }
+
+    private void takeCounts() {
+        mMeasured = mLayout.getChildMeasureCount();
+        mSkipped = mLayout.getSkippedChildMeasureCount();
+    }
+
+    private void assertCounts(int measured, int skipped) {
+        assertEquals(measured, mLayout.getChildMeasureCount() - mMeasured);
+        assertEquals(skipped, mLayout.getSkippedChildMeasureCount() - mSkipped);
+    }
+
+    @Test
+    public void firstMeasureMeasuresBothChildren() {
+        final VerticalDrawerLayout layout = DrawerTestUtils.createUnlaidOutLayout(
+                RuntimeEnvironment.application);
+        layout.onMeasure(mWidthSpec, mHeightSpec);
+
+        assertEquals(2, layout.getChildMeasureCount());
+        assertEquals(0, layout.getSkippedChildMeasureCount());
+    }
+
+    @Test
+    public void unchangedSpecsSkipBothChildren() {
+        mLayout.onMeasure(mWidthSpec, mHeightSpec);
+
+        assertCounts(0, 2);
+    }
+
+    @Test
+    public void contentLayoutRequestOnlyRemeasuresContent() {
+        mLayout.mContentView.requestLayout();
+        mLayout.onMeasure(mWidthSpec, mHeightSpec);
+
+        assertCounts(1, 1);
+    }
+
+    @Test
+    public void changedSpecsRemeasureBothChildren() {
+        mLayout.onMeasure(mWidthSpec,
+                View.MeasureSpec.makeMeasureSpec(HEIGHT - 100, View.MeasureSpec.EXACTLY));
+
+        assertCounts(2, 0);
+    }
+
+    @Test
+    public void marginChangeRemeasuresThatChild() {
+        final VerticalDrawerLayout.LayoutParams lp =
+                (VerticalDrawerLayout.LayoutParams) mLayout.mDrawerView.getLayoutParams();
+        lp.leftMargin = 20;
+        // Changed in place without setLayoutParams, so only the spec tells.
+        mLayout.onMeasure(mWidthSpec, mHeightSpec);
+
+        assertCounts(1, 1);
+        assertEquals(WIDTH - 20, mLayout.mDrawerView.getMeasuredWidth());
+    }
+}
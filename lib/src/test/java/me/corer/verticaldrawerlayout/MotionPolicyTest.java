@@ -0,0 +1,121 @@
+package me.corer.verticaldrawerlayout;
+
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.DRAWER_HEIGHT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Opens and closes the drawer under each motion policy and checks where it
+ * ends up, how many frames that takes and what listeners are told.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class MotionPolicyTest {
+
+    private VerticalDrawerLayout mLayout;
+    private View mDrawer;
+    private final List<String> mEvents = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        mLayout = DrawerTestUtils.createLayout(RuntimeEnvironment.application);
+        mDrawer = mLayout.mDrawerView;
+        mLayout.addDrawerListener(new VerticalDrawerLayout.SimpleDrawerListener() {
+            @Override
+            public void onDrawerSlide(View drawerView, float slideOffset) {
+                mEvents.add("slide " + slideOffset);
+            }
+
+            @Override
+            public void onDrawerOpened(View drawerView) {
+                mEvents.add("opened");
+            }
+
+            @Override
+            public void onDrawerClosed(View drawerView) {
+                mEvents.add("closed");
+            }
+
+            @Override
+            public void onDrawerStateChanged(int newState) {
+                mEvents.add("state " + newState);
+            }
+        });
+    }
+
+    private int openFrames(int policy) {
+        mLayout.setMotionPolicy(policy);
+        mLayout.closeDrawer();
+        DrawerTestUtils.settle(mLayout);
+        mLayout.openDrawerView();
+        return DrawerTestUtils.settle(mLayout);
+    }
+
+    @Test
+    public void instantOpenIsDoneRightAway() {
+        mLayout.setMotionPolicy(VerticalDrawerLayout.MOTION_INSTANT);
+        mLayout.openDrawerView();
+
+        assertEquals(0, mDrawer.getTop());
+        assertTrue(mLayout.isDrawerOpen());
+        assertEquals(VerticalDrawerLayout.STATE_IDLE, mLayout.getDrawerState());
+        assertEquals(Arrays.asList("slide 1.0", "opened"), mEvents);
+    }
+
+    @Test
+    public void instantCloseIsDoneRightAway() {
+        mLayout.setMotionPolicy(VerticalDrawerLayout.MOTION_INSTANT);
+        mLayout.openDrawerView();
+        mEvents.clear();
+        mLayout.closeDrawer();
+
+        assertEquals(-DRAWER_HEIGHT, mDrawer.getTop());
+        assertFalse(mLayout.isDrawerOpen());
+        assertEquals(Arrays.asList("slide 0.0", "closed"), mEvents);
+    }
+
+    @Test
+    public void instantReleaseJumpsToTheSnappedPosition() {
+        mLayout.setMotionPolicy(VerticalDrawerLayout.MOTION_INSTANT);
+        mLayout.moveDrawerTo(mDrawer, -DRAWER_HEIGHT / 4);
+        mLayout.mTopCallback.onViewReleased(mDrawer, 0, 0);
+
+        assertEquals(0, mDrawer.getTop());
+        assertTrue(mLayout.isDrawerOpen());
+    }
+
+    @Test
+    public void shortenedSettleTakesFewerFrames() {
+        final int animated = openFrames(VerticalDrawerLayout.MOTION_ANIMATED);
+        final int shortened = openFrames(VerticalDrawerLayout.MOTION_SHORTENED);
+
+        assertTrue(shortened < animated);
+        assertEquals(0, mDrawer.getTop());
+    }
+
+    @Test
+    public void explicitPolicyIsUsedAsIs() {
+        mLayout.setMotionPolicy(VerticalDrawerLayout.MOTION_SHORTENED);
+
+        assertEquals(VerticalDrawerLayout.MOTION_SHORTENED, mLayout.getResolvedMotionPolicy());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownPolicyIsRejected() {
+        mLayout.setMotionPolicy(42);
+    }
+}
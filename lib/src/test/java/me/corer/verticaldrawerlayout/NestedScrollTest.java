@@ -0,0 +1,247 @@
+package me.corer.verticaldrawerlayout;
+
+import android.content.Context;
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.DRAWER_HEIGHT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives the nested scrolling callbacks the way a scrolling child such as a
+ * RecyclerView would, and checks how the drawer follows and settles.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class NestedScrollTest {
+
+    private VerticalDrawerLayout mLayout;
+    private View mContent;
+    private View mDrawer;
+
+    @Before
+    public void setUp() {
+        mLayout = DrawerTestUtils.createLayout(RuntimeEnvironment.application);
+        mContent = mLayout.mContentView;
+        mDrawer = mLayout.mDrawerView;
+    }
+
+    private void startNestedScroll(View target) {
+        assertTrue(mLayout.onStartNestedScroll(target, target, ViewCompat.SCROLL_AXIS_VERTICAL));
+        mLayout.onNestedScrollAccepted(target, target, ViewCompat.SCROLL_AXIS_VERTICAL);
+    }
+
+    /**
+     * One scroll step: pre-scroll, then the child scrolls nothing (it is at
+     * its end) and reports the rest as unconsumed.
+     */
+    private int[] scrollAtEnd(View target, int dy) {
+        final int[] consumed = new int[2];
+        mLayout.onNestedPreScroll(target, 0, dy, consumed);
+        mLayout.onNestedScroll(target, 0, 0, 0, dy - consumed[1]);
+        return consumed;
+    }
+
+    @Test
+    public void horizontalNestedScrollIsDeclined() {
+        assertFalse(mLayout.onStartNestedScroll(mContent, mContent,
+                ViewCompat.SCROLL_AXIS_HORIZONTAL));
+    }
+
+    @Test
+    public void scrollNoDrawerCanFollowIsDeclined() {
+        mLayout.openDrawerView();
+        DrawerTestUtils.settle(mLayout);
+
+        // The only drawer is fully open, so the content can't pull it further.
+        assertFalse(mLayout.onStartNestedScroll(mContent, mContent,
+                ViewCompat.SCROLL_AXIS_VERTICAL));
+    }
+
+    @Test
+    public void scrollInsideClosedDrawerIsDeclined() {
+        assertFalse(mLayout.onStartNestedScroll(mDrawer, mDrawer,
+                ViewCompat.SCROLL_AXIS_VERTICAL));
+    }
+
+    @Test
+    public void overscrollNoDrawerTakesGoesToParent() {
+        final RecordingParent parent = new RecordingParent(mLayout.getContext());
+        parent.addView(mLayout);
+
+        startNestedScroll(mContent);
+        // Past the bottom of the content, and there is no bottom drawer.
+        scrollAtEnd(mContent, 40);
+        assertFalse(mLayout.onNestedPreFling(mContent, 0, 3000));
+        mLayout.onStopNestedScroll(mContent);
+
+        assertEquals("[start, preScroll 40, scroll 0/40, preFling, stop]",
+                parent.mCalls.toString());
+        assertEquals(-DRAWER_HEIGHT, mDrawer.getTop());
+    }
+
+    @Test
+    public void parentGetsOnlyWhatTheDrawerLeaves() {
+        final RecordingParent parent = new RecordingParent(mLayout.getContext());
+        parent.addView(mLayout);
+
+        startNestedScroll(mContent);
+        // Pull the drawer all the way open and 50px beyond.
+        scrollAtEnd(mContent, -(DRAWER_HEIGHT + 50));
+
+        assertEquals(0, mDrawer.getTop());
+        assertEquals("[start, preScroll " + -(DRAWER_HEIGHT + 50) + ", scroll "
+                + -DRAWER_HEIGHT + "/-50]", parent.mCalls.toString());
+    }
+
+    @Test
+    public void overscrollAtTopPullsDrawerDown() {
+        startNestedScroll(mContent);
+        scrollAtEnd(mContent, -100);
+
+        assertEquals(-DRAWER_HEIGHT + 100, mDrawer.getTop());
+        assertEquals(VerticalDrawerLayout.STATE_DRAGGING, mLayout.getDrawerState());
+    }
+
+    @Test
+    public void partlyOpenDrawerConsumesPreScroll() {
+        startNestedScroll(mContent);
+        scrollAtEnd(mContent, -150);
+
+        // Scrolling the list back up moves the drawer first.
+        final int[] consumed = new int[2];
+        mLayout.onNestedPreScroll(mContent, 0, 50, consumed);
+
+        assertEquals(50, consumed[1]);
+        assertEquals(-DRAWER_HEIGHT + 100, mDrawer.getTop());
+    }
+
+    @Test
+    public void preScrollStopsAtClosedDrawer() {
+        startNestedScroll(mContent);
+        scrollAtEnd(mContent, -30);
+
+        final int[] consumed = new int[2];
+        mLayout.onNestedPreScroll(mContent, 0, 80, consumed);
+
+        // Only the part that closes the drawer is consumed; the rest scrolls the child.
+        assertEquals(30, consumed[1]);
+        assertEquals(-DRAWER_HEIGHT, mDrawer.getTop());
+    }
+
+    @Test
+    public void closedDrawerLeavesPreScrollToChild() {
+        startNestedScroll(mContent);
+        final int[] consumed = new int[2];
+        mLayout.onNestedPreScroll(mContent, 0, -40, consumed);
+
+        assertEquals(0, consumed[1]);
+        assertEquals(-DRAWER_HEIGHT, mDrawer.getTop());
+        assertEquals(VerticalDrawerLayout.STATE_IDLE, mLayout.getDrawerState());
+    }
+
+    @Test
+    public void flingAfterPullOpensDrawer() {
+        startNestedScroll(mContent);
+        scrollAtEnd(mContent, -60);
+
+        // Finger moving down, so the list would scroll towards its top.
+        assertTrue(mLayout.onNestedPreFling(mContent, 0, -3000));
+        mLayout.onStopNestedScroll(mContent);
+        DrawerTestUtils.settle(mLayout);
+
+        assertTrue(mLayout.isDrawerOpen());
+        assertEquals(0, mDrawer.getTop());
+    }
+
+    @Test
+    public void flingWithoutDrawerMotionIsLeftToChild() {
+        startNestedScroll(mContent);
+        scrollAtEnd(mContent, 40);
+
+        assertFalse(mLayout.onNestedPreFling(mContent, 0, 3000));
+        mLayout.onStopNestedScroll(mContent);
+        assertEquals(VerticalDrawerLayout.STATE_IDLE, mLayout.getDrawerState());
+    }
+
+    @Test
+    public void stopWithoutFlingSnapsToNearestEnd() {
+        startNestedScroll(mContent);
+        scrollAtEnd(mContent, -(DRAWER_HEIGHT / 2 + 20));
+        mLayout.onStopNestedScroll(mContent);
+        DrawerTestUtils.settle(mLayout);
+
+        assertTrue(mLayout.isDrawerOpen());
+        assertEquals(0, mDrawer.getTop());
+    }
+
+    @Test
+    public void overscrollInsideOpenDrawerClosesIt() {
+        mLayout.openDrawerView();
+        DrawerTestUtils.settle(mLayout);
+
+        startNestedScroll(mDrawer);
+        scrollAtEnd(mDrawer, 120);
+        assertEquals(-120, mDrawer.getTop());
+
+        assertTrue(mLayout.onNestedPreFling(mDrawer, 0, 3000));
+        mLayout.onStopNestedScroll(mDrawer);
+        DrawerTestUtils.settle(mLayout);
+
+        assertFalse(mLayout.isDrawerOpen());
+        assertEquals(-DRAWER_HEIGHT, mDrawer.getTop());
+    }
+
+    /**
+     * A nested scrolling parent above the layout that takes every vertical
+     * nested scroll and records what reaches it.
+     */
+    private static class RecordingParent extends FrameLayout {
+        final List<String> mCalls = new ArrayList<>();
+
+        RecordingParent(Context context) {
+            super(context);
+        }
+
+        @Override
+        public boolean onStartNestedScroll(View child, View target, int nestedScrollAxes) {
+            mCalls.add("start");
+            return true;
+        }
+
+        @Override
+        public void onNestedPreScroll(View target, int dx, int dy, int[] consumed) {
+            mCalls.add("preScroll " + dy);
+        }
+
+        @Override
+        public void onNestedScroll(View target, int dxConsumed, int dyConsumed,
+                int dxUnconsumed, int dyUnconsumed) {
+            mCalls.add("scroll " + dyConsumed + "/" + dyUnconsumed);
+        }
+
+        @Override
+        public boolean onNestedPreFling(View target, float velocityX, float velocityY) {
+            mCalls.add("preFling");
+            return false;
+        }
+
+        @Override
+        public void onStopNestedScroll(View target) {
+            mCalls.add("stop");
+        }
+    }
+}
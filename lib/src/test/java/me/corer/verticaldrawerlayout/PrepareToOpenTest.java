@@ -0,0 +1,128 @@
+package me.corer.verticaldrawerlayout;
+
+import android.os.SystemClock;
+import android.view.Gravity;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.HEIGHT;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that a drawer about to open is put on its layer ahead of the motion,
+ * the content only once the motion starts, and that the drawer gives its layer
+ * back when the motion doesn't come. Robolectric doesn't render
+ * with hardware acceleration, so the layout claims it does.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class PrepareToOpenTest {
+
+    private VerticalDrawerLayout mLayout;
+    private View mDrawer;
+
+    @Before
+    public void setUp() {
+        mLayout = DrawerTestUtils.addChildren(
+                new VerticalDrawerLayout(RuntimeEnvironment.application) {
+                    @Override
+                    public boolean isHardwareAccelerated() {
+                        return true;
+                    }
+                });
+        DrawerTestUtils.layoutPass(mLayout);
+        mLayout.setDrawerLayerPromotionEnabled(true);
+        mDrawer = mLayout.mDrawerView;
+    }
+
+    private void touchDown(float y) {
+        final long now = SystemClock.uptimeMillis();
+        final MotionEvent down = MotionEvent.obtain(now, now, MotionEvent.ACTION_DOWN, 100, y, 0);
+        mLayout.onInterceptTouchEvent(down);
+        down.recycle();
+    }
+
+    @Test
+    public void prepareToOpenPutsOnlyDrawerOnLayer() {
+        mLayout.prepareToOpen();
+
+        assertEquals(View.LAYER_TYPE_HARDWARE, mDrawer.getLayerType());
+        assertEquals(View.LAYER_TYPE_NONE, mLayout.mContentView.getLayerType());
+    }
+
+    @Test
+    public void scrimmedContentIsPromotedOnceMotionStarts() {
+        mLayout.prepareToOpen();
+        mLayout.openDrawerView();
+
+        assertEquals(View.LAYER_TYPE_HARDWARE, mDrawer.getLayerType());
+        // Scrimmed content stays static while the drawer moves, so it gets one too.
+        assertEquals(View.LAYER_TYPE_HARDWARE, mLayout.mContentView.getLayerType());
+    }
+
+    @Test
+    public void preparedLayerIsGivenBackIfDrawerStaysIdle() {
+        mLayout.prepareToOpen();
+        mLayout.mReleasePreparedLayersRunnable.run();
+
+        assertEquals(View.LAYER_TYPE_NONE, mDrawer.getLayerType());
+        assertEquals(View.LAYER_TYPE_NONE, mLayout.mContentView.getLayerType());
+    }
+
+    @Test
+    public void preparedLayerCarriesOverIntoTheMotion() {
+        mLayout.prepareToOpen();
+        mLayout.openDrawerView();
+        // As if the timeout had already been queued when the motion started.
+        mLayout.mReleasePreparedLayersRunnable.run();
+
+        assertEquals(View.LAYER_TYPE_HARDWARE, mDrawer.getLayerType());
+
+        DrawerTestUtils.settle(mLayout);
+        assertEquals(View.LAYER_TYPE_NONE, mDrawer.getLayerType());
+    }
+
+    @Test
+    public void touchDownInEdgeZonePreparesDrawer() {
+        touchDown(mLayout.mDragHelper.getEdgeSize() / 2);
+
+        assertEquals(View.LAYER_TYPE_HARDWARE, mDrawer.getLayerType());
+        assertEquals(View.LAYER_TYPE_NONE, mLayout.mContentView.getLayerType());
+    }
+
+    @Test
+    public void touchDownElsewhereDoesNothing() {
+        touchDown(HEIGHT / 2);
+
+        assertEquals(View.LAYER_TYPE_NONE, mDrawer.getLayerType());
+    }
+
+    @Test
+    public void openDrawerIsNotPrepared() {
+        mLayout.openDrawerView();
+        DrawerTestUtils.settle(mLayout);
+
+        mLayout.prepareToOpen();
+        assertEquals(View.LAYER_TYPE_NONE, mDrawer.getLayerType());
+    }
+
+    @Test
+    public void nothingIsPromotedWithPromotionOff() {
+        mLayout.setDrawerLayerPromotionEnabled(false);
+        mLayout.prepareToOpen();
+
+        assertEquals(View.LAYER_TYPE_NONE, mDrawer.getLayerType());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void preparingMissingDrawerIsRejected() {
+        mLayout.prepareToOpen(Gravity.BOTTOM);
+    }
+}
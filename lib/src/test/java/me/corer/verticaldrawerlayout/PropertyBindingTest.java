@@ -0,0 +1,109 @@
+package me.corer.verticaldrawerlayout;
+
+import android.animation.TimeInterpolator;
+import android.content.Context;
+import android.view.Gravity;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.DRAWER_HEIGHT;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Binds view properties to the slide offset and checks their values as the
+ * drawer moves.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class PropertyBindingTest {
+
+    private final Context mContext = RuntimeEnvironment.application;
+    private VerticalDrawerLayout mLayout;
+    private View mTarget;
+
+    @Before
+    public void setUp() {
+        mLayout = DrawerTestUtils.createLayout(mContext);
+        mTarget = new View(mContext);
+    }
+
+    private void moveTopDrawer(int showing) {
+        mLayout.moveDrawerTo(mLayout.mDrawerView, showing - DRAWER_HEIGHT);
+    }
+
+    @Test
+    public void bindingFollowsOffset() {
+        mLayout.bindProperty(mTarget, VerticalDrawerLayout.PROPERTY_ROTATION, 0, 180, null);
+        assertEquals(0.f, mTarget.getRotation(), 0.f);
+
+        moveTopDrawer(DRAWER_HEIGHT / 2);
+        assertEquals(90.f, mTarget.getRotation(), 0.001f);
+
+        moveTopDrawer(DRAWER_HEIGHT);
+        assertEquals(180.f, mTarget.getRotation(), 0.001f);
+    }
+
+    @Test
+    public void interpolatorMapsOffset() {
+        mLayout.bindProperty(mTarget, VerticalDrawerLayout.PROPERTY_ALPHA, 0, 1,
+                new TimeInterpolator() {
+                    @Override
+                    public float getInterpolation(float input) {
+                        return input * input;
+                    }
+                });
+
+        moveTopDrawer(DRAWER_HEIGHT / 2);
+        assertEquals(0.25f, mTarget.getAlpha(), 0.001f);
+    }
+
+    @Test
+    public void rebindingReplacesBinding() {
+        mLayout.bindProperty(mTarget, VerticalDrawerLayout.PROPERTY_TRANSLATION_Y, 0, 100, null);
+        mLayout.bindProperty(mTarget, VerticalDrawerLayout.PROPERTY_TRANSLATION_Y, 0, -100, null);
+
+        moveTopDrawer(DRAWER_HEIGHT);
+        assertEquals(-100.f, mTarget.getTranslationY(), 0.001f);
+    }
+
+    @Test
+    public void unboundPropertyKeepsItsValue() {
+        mLayout.bindProperty(mTarget, VerticalDrawerLayout.PROPERTY_SCALE, 1, 2, null);
+        moveTopDrawer(DRAWER_HEIGHT / 2);
+        mLayout.unbindProperty(mTarget, VerticalDrawerLayout.PROPERTY_SCALE);
+
+        moveTopDrawer(DRAWER_HEIGHT);
+        assertEquals(1.5f, mTarget.getScaleX(), 0.001f);
+        assertEquals(1.5f, mTarget.getScaleY(), 0.001f);
+    }
+
+    @Test
+    public void bindingFollowsBottomDrawer() {
+        mLayout = DrawerTestUtils.createLayoutWithBottomDrawer(mContext);
+        mLayout.bindProperty(Gravity.BOTTOM, mTarget, VerticalDrawerLayout.PROPERTY_ROTATION,
+                0, 180, null);
+
+        moveTopDrawer(DRAWER_HEIGHT);
+        assertEquals(0.f, mTarget.getRotation(), 0.f);
+
+        final View bottom = mLayout.findDrawerWithGravity(Gravity.BOTTOM);
+        mLayout.moveDrawerTo(bottom, mLayout.getHeight() - DRAWER_HEIGHT / 2);
+        assertEquals(90.f, mTarget.getRotation(), 0.001f);
+    }
+
+    @Test
+    public void bindingBeforeFirstLayoutTakesOpenValue() {
+        final VerticalDrawerLayout layout = DrawerTestUtils.createUnlaidOutLayout(mContext);
+        layout.bindProperty(mTarget, VerticalDrawerLayout.PROPERTY_ROTATION, 0, 180, null);
+        layout.openDrawerView();
+        DrawerTestUtils.layoutPass(layout);
+
+        assertEquals(180.f, mTarget.getRotation(), 0.f);
+    }
+}
@@ -0,0 +1,148 @@
+package me.corer.verticaldrawerlayout;
+
+import android.content.Context;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.DRAWER_HEIGHT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Saves the drawer state from one layout, restores it into a fresh one as
+ * after a configuration change, and checks that the first layout pass already
+ * puts the drawer in place.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SavedStateTest {
+
+    private final Context mContext = RuntimeEnvironment.application;
+
+    /**
+     * Writes the state to a parcel and reads it back, like the framework does
+     * when the process is killed.
+     */
+    private static Parcelable parcelRoundTrip(Parcelable state) {
+        final Parcel parcel = Parcel.obtain();
+        try {
+            state.writeToParcel(parcel, 0);
+            parcel.setDataPosition(0);
+            return VerticalDrawerLayout.SavedState.CREATOR.createFromParcel(parcel);
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    private VerticalDrawerLayout restore(Parcelable state) {
+        final VerticalDrawerLayout layout = DrawerTestUtils.createUnlaidOutLayout(mContext);
+        layout.onRestoreInstanceState(parcelRoundTrip(state));
+        DrawerTestUtils.layoutPass(layout);
+        return layout;
+    }
+
+    @Test
+    public void openDrawerIsOpenOnFirstLayout() {
+        final VerticalDrawerLayout saved = DrawerTestUtils.createLayout(mContext);
+        saved.openDrawerView();
+        DrawerTestUtils.settle(saved);
+
+        final VerticalDrawerLayout layout = restore(saved.onSaveInstanceState());
+
+        assertTrue(layout.isDrawerOpen());
+        assertEquals(0, layout.mDrawerView.getTop());
+        assertEquals(VerticalDrawerLayout.STATE_IDLE, layout.getDrawerState());
+    }
+
+    @Test
+    public void closedDrawerStaysClosed() {
+        final VerticalDrawerLayout saved = DrawerTestUtils.createLayout(mContext);
+
+        final VerticalDrawerLayout layout = restore(saved.onSaveInstanceState());
+
+        assertFalse(layout.isDrawerOpen());
+        assertEquals(-DRAWER_HEIGHT, layout.mDrawerView.getTop());
+    }
+
+    @Test
+    public void partialOffsetIsRestoredExactly() {
+        final VerticalDrawerLayout saved = DrawerTestUtils.createLayout(mContext);
+        saved.moveDrawerTo(saved.mDrawerView, -DRAWER_HEIGHT / 4);
+
+        final VerticalDrawerLayout layout = restore(saved.onSaveInstanceState());
+
+        assertEquals(0.75f, layout.getDrawerViewOffset(layout.mDrawerView), 0.f);
+        assertEquals(-DRAWER_HEIGHT / 4, layout.mDrawerView.getTop());
+    }
+
+    @Test
+    public void settlingDrawerIsSavedAtItsTarget() {
+        final VerticalDrawerLayout saved = DrawerTestUtils.createLayout(mContext);
+        saved.openDrawerView();
+        saved.computeScroll();
+
+        final VerticalDrawerLayout layout = restore(saved.onSaveInstanceState());
+
+        assertTrue(layout.isDrawerOpen());
+        assertEquals(0, layout.mDrawerView.getTop());
+    }
+
+    @Test
+    public void restoreTellsListenersTheOffsetOnce() {
+        final VerticalDrawerLayout saved = DrawerTestUtils.createLayout(mContext);
+        saved.openDrawerView();
+        DrawerTestUtils.settle(saved);
+        final Parcelable state = parcelRoundTrip(saved.onSaveInstanceState());
+
+        final VerticalDrawerLayout layout = DrawerTestUtils.createUnlaidOutLayout(mContext);
+        final int[] calls = new int[3]; // slide, opened, state changes
+        final float[] lastOffset = new float[1];
+        layout.addDrawerListener(new VerticalDrawerLayout.SimpleDrawerListener() {
+            @Override
+            public void onDrawerSlide(View drawerView, float slideOffset) {
+                calls[0]++;
+                lastOffset[0] = slideOffset;
+            }
+
+            @Override
+            public void onDrawerOpened(View drawerView) {
+                calls[1]++;
+            }
+
+            @Override
+            public void onDrawerStateChanged(int newState) {
+                calls[2]++;
+            }
+        });
+        layout.onRestoreInstanceState(state);
+        DrawerTestUtils.layoutPass(layout);
+
+        assertEquals(1, calls[0]);
+        assertEquals(1.f, lastOffset[0], 0.f);
+        assertEquals(0, calls[1]);
+        assertEquals(0, calls[2]);
+    }
+
+    @Test
+    public void restoreIntoLaidOutLayoutJumpsWithoutSettling() {
+        final VerticalDrawerLayout saved = DrawerTestUtils.createLayout(mContext);
+        saved.openDrawerView();
+        DrawerTestUtils.settle(saved);
+
+        final VerticalDrawerLayout layout = DrawerTestUtils.createLayout(mContext);
+        layout.onRestoreInstanceState(parcelRoundTrip(saved.onSaveInstanceState()));
+        DrawerTestUtils.layoutPass(layout);
+
+        assertEquals(VerticalDrawerLayout.STATE_IDLE, layout.getDrawerState());
+        assertEquals(0, layout.mDrawerView.getTop());
+        assertTrue(layout.isDrawerOpen());
+    }
+}
@@ -0,0 +1,166 @@
+package me.corer.verticaldrawerlayout;
+
+import android.os.SystemClock;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.DRAWER_HEIGHT;
+import static me.corer.verticaldrawerlayout.DrawerTestUtils.FRAME_MS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Moves the drawer with slide dispatch coalescing on and checks which slide
+ * callbacks listeners get, and in what order with opened and closed. The
+ * layout isn't attached, so the end of each frame is simulated by running the
+ * posted dispatch directly after stepping the clock.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SlideDispatchTest {
+
+    private VerticalDrawerLayout mLayout;
+    private View mDrawer;
+    private final List<String> mCalls = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        mLayout = DrawerTestUtils.createLayout(RuntimeEnvironment.application);
+        mDrawer = mLayout.mDrawerView;
+        mLayout.setSlideDispatchCoalescingEnabled(true);
+        mLayout.addDrawerListener(new VerticalDrawerLayout.SimpleDrawerListener() {
+            @Override
+            public void onDrawerSlide(View drawerView, float slideOffset) {
+                mCalls.add("slide " + slideOffset);
+            }
+
+            @Override
+            public void onDrawerOpened(View drawerView) {
+                mCalls.add("opened");
+            }
+
+            @Override
+            public void onDrawerClosed(View drawerView) {
+                mCalls.add("closed");
+            }
+        });
+    }
+
+    /**
+     * One frame of a drag: the drawer moves once per touch event, then the
+     * frame ends.
+     */
+    private void dragFrame(int... showing) {
+        SystemClock.sleep(FRAME_MS);
+        for (int s : showing) {
+            mLayout.moveDrawerTo(mDrawer, s - DRAWER_HEIGHT);
+        }
+        endFrame();
+    }
+
+    private void endFrame() {
+        mLayout.mSlideDispatchRunnable.run();
+    }
+
+    /**
+     * Settles the drawer one frame at a time, ending each frame.
+     */
+    private void settle() {
+        int frames = 0;
+        while (mLayout.getDrawerState() != VerticalDrawerLayout.STATE_IDLE && frames++ < 600) {
+            SystemClock.sleep(FRAME_MS);
+            mLayout.computeScroll();
+            endFrame();
+        }
+    }
+
+    @Test
+    public void severalStepsInAFrameGiveOneSlide() {
+        dragFrame(10, 20, 30);
+        assertEquals("[slide 0.075]", mCalls.toString());
+
+        dragFrame(40, 50, 60, 80);
+        assertEquals("[slide 0.075, slide 0.2]", mCalls.toString());
+    }
+
+    @Test
+    public void nothingIsDeliveredBeforeTheFrameEnds() {
+        mLayout.moveDrawerTo(mDrawer, 100 - DRAWER_HEIGHT);
+        mLayout.moveDrawerTo(mDrawer, 120 - DRAWER_HEIGHT);
+
+        assertTrue(mCalls.isEmpty());
+        endFrame();
+        assertEquals("[slide 0.3]", mCalls.toString());
+    }
+
+    @Test
+    public void changesBelowThresholdAreHeldBack() {
+        mLayout.setSlideDispatchThreshold(0.25f);
+
+        dragFrame(40);
+        dragFrame(80);
+        assertTrue(mCalls.isEmpty());
+
+        // 0.3 from the last delivered offset of 0.
+        dragFrame(120);
+        dragFrame(160);
+        dragFrame(200);
+        assertEquals("[slide 0.3]", mCalls.toString());
+
+        dragFrame(240);
+        assertEquals("[slide 0.3, slide 0.6]", mCalls.toString());
+    }
+
+    @Test
+    public void finalSlideArrivesBeforeOpened() {
+        // Holds back every step of the settle that isn't the last.
+        mLayout.setSlideDispatchThreshold(1);
+        mLayout.openDrawerView();
+        settle();
+
+        assertEquals("[slide 1.0, opened]", mCalls.toString());
+        endFrame();
+        assertEquals("[slide 1.0, opened]", mCalls.toString());
+    }
+
+    @Test
+    public void finalSlideArrivesBeforeClosed() {
+        mLayout.openDrawerView();
+        settle();
+        mLayout.setSlideDispatchThreshold(1);
+        mCalls.clear();
+
+        mLayout.closeDrawer();
+        settle();
+
+        assertEquals("[slide 0.0, closed]", mCalls.toString());
+    }
+
+    @Test
+    public void settleGivesAtMostOneSlidePerFrame() {
+        mLayout.openDrawerView();
+        int frames = 0;
+        while (mLayout.getDrawerState() != VerticalDrawerLayout.STATE_IDLE) {
+            final int before = mCalls.size();
+            SystemClock.sleep(FRAME_MS);
+            mLayout.computeScroll();
+            endFrame();
+            final int slides = mCalls.size() - before - (mLayout.isDrawerOpen() ? 1 : 0);
+            assertTrue("frame " + frames + " gave " + slides + " slides", slides <= 1);
+            frames++;
+        }
+
+        assertTrue(frames > 1);
+        assertEquals("opened", mCalls.get(mCalls.size() - 1));
+        assertEquals("slide 1.0", mCalls.get(mCalls.size() - 2));
+    }
+}
@@ -0,0 +1,85 @@
+package me.corer.verticaldrawerlayout;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpringSettleEngineTest {
+
+    private final SpringSettleEngine mEngine = new SpringSettleEngine();
+
+    @Test
+    public void settlesAtTarget() {
+        final SettleEngine.Motion motion = motion(-1000, 0, 0);
+        final int frames = run(motion, 1 / 60.f);
+
+        assertEquals(0.f, motion.position, 0.f);
+        assertEquals(0.f, motion.velocity, 0.f);
+        assertTrue("took " + frames + " frames", frames < 40);
+    }
+
+    @Test
+    public void curveDoesNotDependOnFrameRate() {
+        final SettleEngine.Motion at60 = motion(-800, 1500, 0);
+        final SettleEngine.Motion at120 = motion(-800, 1500, 0);
+
+        for (int i = 0; i < 6; i++) {
+            mEngine.step(at60, 1 / 60.f);
+            mEngine.step(at120, 1 / 120.f);
+            mEngine.step(at120, 1 / 120.f);
+        }
+
+        assertEquals(at60.position, at120.position, 0.05f);
+        assertEquals(at60.velocity, at120.velocity, 0.5f);
+    }
+
+    @Test
+    public void retargetKeepsVelocity() {
+        final SettleEngine.Motion motion = motion(-800, 0, 0);
+        for (int i = 0; i < 5; i++) {
+            mEngine.step(motion, 1 / 60.f);
+        }
+        final float velocity = motion.velocity;
+        assertTrue(velocity > 0);
+
+        // Reverse towards closed: the drawer must not stop dead.
+        motion.target = -800;
+        mEngine.step(motion, 0);
+        assertEquals(velocity, motion.velocity, 0.f);
+
+        run(motion, 1 / 60.f);
+        assertEquals(-800.f, motion.position, 0.f);
+    }
+
+    @Test
+    public void zeroDeltaDoesNotMove() {
+        final SettleEngine.Motion motion = motion(-500, 200, 0);
+        assertTrue(mEngine.step(motion, 0));
+        assertEquals(-500.f, motion.position, 0.f);
+        assertEquals(200.f, motion.velocity, 0.f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveStiffness() {
+        new SpringSettleEngine(0);
+    }
+
+    private int run(SettleEngine.Motion motion, float delta) {
+        int frames = 0;
+        while (mEngine.step(motion, delta)) {
+            frames++;
+            assertFalse("did not settle", frames > 1000);
+        }
+        return frames;
+    }
+
+    private static SettleEngine.Motion motion(float position, float velocity, float target) {
+        final SettleEngine.Motion motion = new SettleEngine.Motion();
+        motion.position = position;
+        motion.velocity = velocity;
+        motion.target = target;
+        return motion;
+    }
+}